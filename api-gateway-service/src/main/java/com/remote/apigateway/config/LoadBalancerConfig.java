@@ -0,0 +1,9 @@
+package com.remote.apigateway.config;
+
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClient;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@LoadBalancerClient(name = "CONSUMER-SERVICE", configuration = SessionAffinityLoadBalancerConfig.class)
+public class LoadBalancerConfig {
+}
@@ -0,0 +1,23 @@
+package com.remote.apigateway.config;
+
+import com.remote.apigateway.loadbalancer.SessionAffinityLoadBalancer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+// Not a @Configuration: it is only applied to the consumer-service client through @LoadBalancerClient
+public class SessionAffinityLoadBalancerConfig {
+
+    @Bean
+    public ReactorLoadBalancer<ServiceInstance> sessionAffinityLoadBalancer(
+            Environment environment, LoadBalancerClientFactory loadBalancerClientFactory,
+            @Value("${gateway.websocket.virtual-nodes:160}") int virtualNodes) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        return new SessionAffinityLoadBalancer(serviceId,
+                loadBalancerClientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class), virtualNodes);
+    }
+}
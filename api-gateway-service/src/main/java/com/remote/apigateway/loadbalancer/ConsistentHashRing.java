@@ -0,0 +1,49 @@
+package com.remote.apigateway.loadbalancer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Hash ring with {@code virtualNodes} points per node. A node joining or leaving only moves the keys between
+ * its points and their predecessors, roughly 1/n of all keys, instead of reshuffling every key.
+ */
+public class ConsistentHashRing<T> {
+
+    private final TreeMap<Long, T> ring = new TreeMap<>();
+
+    public ConsistentHashRing(List<T> nodes, Function<T, String> nodeKey, int virtualNodes) {
+        for (T node : nodes) {
+            String key = nodeKey.apply(node);
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(hash(key + "#" + i), node);
+            }
+        }
+    }
+
+    // The first node clockwise from the key's hash, or null on an empty ring
+    public T select(String key) {
+        if (ring.isEmpty()) {
+            return null;
+        }
+        Map.Entry<Long, T> entry = ring.ceilingEntry(hash(key));
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+
+    // 64-bit FNV-1a followed by a finalizer so that similar keys spread over the whole ring
+    static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
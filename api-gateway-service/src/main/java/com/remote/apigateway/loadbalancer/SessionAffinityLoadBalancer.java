@@ -0,0 +1,94 @@
+package com.remote.apigateway.loadbalancer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Picks the consumer-service instance for a WebSocket by a consistent hash of the session id (the last path
+ * segment of {@code /docker-output/{sessionId}}) over the current instance list, so reconnects of a session land
+ * on the same node and membership changes only move a small share of the sessions. Requests without a session
+ * id go to a random instance.
+ */
+public class SessionAffinityLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+
+    private static final Logger log = LoggerFactory.getLogger(SessionAffinityLoadBalancer.class);
+
+    private final String serviceId;
+    private final ObjectProvider<ServiceInstanceListSupplier> instanceListSupplierProvider;
+    private final int virtualNodes;
+
+    // Rebuilt only when the instance list changes
+    private volatile RingSnapshot snapshot = new RingSnapshot(List.of(), new ConsistentHashRing<>(List.of(), i -> "", 0));
+
+    public SessionAffinityLoadBalancer(String serviceId,
+                                       ObjectProvider<ServiceInstanceListSupplier> instanceListSupplierProvider,
+                                       int virtualNodes) {
+        this.serviceId = serviceId;
+        this.instanceListSupplierProvider = instanceListSupplierProvider;
+        this.virtualNodes = virtualNodes;
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = instanceListSupplierProvider
+                .getIfAvailable(NoopServiceInstanceListSupplier::new);
+        String sessionId = sessionId(request);
+        return supplier.get(request).next().map(instances -> choose(instances, sessionId));
+    }
+
+    private Response<ServiceInstance> choose(List<ServiceInstance> instances, String sessionId) {
+        if (instances.isEmpty()) {
+            log.warn("No instances available for {}", serviceId);
+            return new EmptyResponse();
+        }
+        if (sessionId == null) {
+            return new DefaultResponse(instances.get(ThreadLocalRandom.current().nextInt(instances.size())));
+        }
+        return new DefaultResponse(ring(instances).select(sessionId));
+    }
+
+    private ConsistentHashRing<ServiceInstance> ring(List<ServiceInstance> instances) {
+        List<String> ids = instances.stream().map(SessionAffinityLoadBalancer::instanceKey).sorted().toList();
+        RingSnapshot current = snapshot;
+        if (!current.instanceIds.equals(ids)) {
+            // Sorted so that every gateway builds the same ring from the same instances
+            List<ServiceInstance> sorted = instances.stream()
+                    .sorted(Comparator.comparing(SessionAffinityLoadBalancer::instanceKey))
+                    .toList();
+            current = new RingSnapshot(ids, new ConsistentHashRing<>(sorted, SessionAffinityLoadBalancer::instanceKey, virtualNodes));
+            snapshot = current;
+        }
+        return current.ring;
+    }
+
+    private static String instanceKey(ServiceInstance instance) {
+        return instance.getInstanceId() != null ? instance.getInstanceId() : instance.getHost() + ":" + instance.getPort();
+    }
+
+    private static String sessionId(Request request) {
+        if (!(request.getContext() instanceof RequestDataContext context) || context.getClientRequest() == null) {
+            return null;
+        }
+        String path = context.getClientRequest().getUrl().getPath();
+        int slash = path.lastIndexOf('/');
+        return slash >= 0 && slash < path.length() - 1 ? path.substring(slash + 1) : null;
+    }
+
+    private record RingSnapshot(List<String> instanceIds, ConsistentHashRing<ServiceInstance> ring) {
+    }
+}
@@ -0,0 +1,74 @@
+package com.remote.apigateway.ratelimit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-user rate limits, applied right after {@code JwtAuthGlobalFilter} has set {@code X-User-Name}. Code
+ * submissions, each of which becomes a container run, have their own, much smaller budget than everything else.
+ * Requests over the limit are answered with 429 and {@code Retry-After} before they reach any service.
+ */
+@Component
+public class RateLimitGlobalFilter implements GlobalFilter, Ordered {
+
+    private static final Logger log = LoggerFactory.getLogger(RateLimitGlobalFilter.class);
+
+    private final TokenBucketRateLimiter submissionLimiter;
+    private final TokenBucketRateLimiter readLimiter;
+    private final boolean enabled;
+
+    public RateLimitGlobalFilter(@Value("${gateway.rate-limit.enabled:true}") boolean enabled,
+                                 @Value("${gateway.rate-limit.submission.capacity:5}") double submissionCapacity,
+                                 @Value("${gateway.rate-limit.submission.refill-per-second:0.5}") double submissionRefill,
+                                 @Value("${gateway.rate-limit.read.capacity:50}") double readCapacity,
+                                 @Value("${gateway.rate-limit.read.refill-per-second:20}") double readRefill,
+                                 @Value("${gateway.rate-limit.stripes:64}") int stripes) {
+        this.enabled = enabled;
+        this.submissionLimiter = new TokenBucketRateLimiter(submissionCapacity, submissionRefill, stripes);
+        this.readLimiter = new TokenBucketRateLimiter(readCapacity, readRefill, stripes);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String username = request.getHeaders().getFirst("X-User-Name");
+        // Unauthenticated paths (/auth/**, /actuator/**) carry no user
+        if (!enabled || username == null) {
+            return chain.filter(exchange);
+        }
+
+        boolean submission = isSubmission(request);
+        long waitNanos = (submission ? submissionLimiter : readLimiter).tryAcquire(username);
+        if (waitNanos == 0) {
+            return chain.filter(exchange);
+        }
+
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        log.debug("Rate limit exceeded for user {} on {}", username, request.getURI().getPath());
+        exchange.getResponse().setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        return exchange.getResponse().setComplete();
+    }
+
+    @Override
+    public int getOrder() {
+        return 1;
+    }
+
+    private static boolean isSubmission(ServerHttpRequest request) {
+        return HttpMethod.POST.equals(request.getMethod()) && request.getURI().getPath().startsWith("/api/execute/");
+    }
+}
@@ -1,5 +1,6 @@
 package com.remote.apigateway.security;
 
+import io.jsonwebtoken.Claims;
 import org.springframework.core.Ordered;
 import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Component;
@@ -25,17 +26,17 @@ public class JwtAuthGlobalFilter implements GlobalFilter, Ordered {
             return chain.filter(exchange);
         }
 
-        String auth = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
-        if (auth == null || !auth.startsWith("Bearer ")) {
+        String token = bearerToken(exchange);
+        if (token == null) {
             throw new IllegalArgumentException("Missing or invalid Authorization header");
         }
 
-        String token = auth.substring(7);
-        if (!jwtUtils.validateToken(token)) {
+        Claims claims = jwtUtils.verifiedClaims(token);
+        if (claims == null) {
             throw new IllegalArgumentException("Invalid or expired token");
         }
 
-        String username = jwtUtils.extractUsername(token);
+        String username = claims.getSubject();
         ServerWebExchange mutated = exchange.mutate()
                 .request(r -> r.headers(h -> h.set("X-User-Name", username)))
                 .build();
@@ -43,6 +44,18 @@ public class JwtAuthGlobalFilter implements GlobalFilter, Ordered {
         return chain.filter(mutated);
     }
 
+    // Browsers cannot set headers on WebSocket handshakes, so those may pass the token as ?token= instead
+    private String bearerToken(ServerWebExchange exchange) {
+        String auth = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (auth != null && auth.startsWith("Bearer ")) {
+            return auth.substring(7);
+        }
+        if ("websocket".equalsIgnoreCase(exchange.getRequest().getHeaders().getUpgrade())) {
+            return exchange.getRequest().getQueryParams().getFirst("token");
+        }
+        return null;
+    }
+
     @Override
     public int getOrder() {
         return 0;
@@ -1,9 +1,14 @@
 package com.remote.apigateway.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -12,6 +17,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtUtils {
@@ -22,8 +28,39 @@ public class JwtUtils {
     @Value("${jwt.expiration}")
     private Long expiration;
 
-    private SecretKey key() {
-        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    @Value("${jwt.cache.max-size:10000}")
+    private long cacheMaxSize;
+
+    private SecretKey key;
+    private JwtParser parser;
+
+    // token -> verified claims, each entry expires together with its token
+    private Cache<String, Claims> verifiedTokens;
+
+    @PostConstruct
+    public void init() {
+        key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser().verifyWith(key).build();
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String token, Claims claims, long currentTime) {
+                        long remainingMillis = claims.getExpiration().getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String token, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String token, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
     }
 
     public String generateToken(String username) {
@@ -35,30 +72,33 @@ public class JwtUtils {
                 .subject(username)
                 .issuedAt(now)
                 .expiration(exp)
-                .signWith(key())
+                .signWith(key)
                 .compact();
     }
 
-    public boolean validateToken(String token) {
+    // Claims of a valid, unexpired token or null; the signature is only checked the first time a token is seen
+    public Claims verifiedClaims(String token) {
+        Claims claims = verifiedTokens.getIfPresent(token);
+        if (claims != null) {
+            return claims;
+        }
         try {
-            Jwts.parser().verifyWith(key()).build().parseSignedClaims(token);
-            return !isExpired(token);
+            // The parser rejects expired tokens itself
+            claims = parser.parseSignedClaims(token).getPayload();
         } catch (JwtException | IllegalArgumentException e) {
-            return false;
+            return null;
         }
+        if (claims.getExpiration() != null) {
+            verifiedTokens.put(token, claims);
+        }
+        return claims;
     }
 
-    public String extractUsername(String token) {
-        return claims(token).getSubject();
-    }
-
-    private boolean isExpired(String token) {
-        return claims(token).getExpiration().before(new Date());
+    public boolean validateToken(String token) {
+        return verifiedClaims(token) != null;
     }
 
-    private Claims claims(String token) {
-        return Jwts.parser().verifyWith(key()).build()
-                .parseSignedClaims(token)
-                .getPayload();
+    public String extractUsername(String token) {
+        return parser.parseSignedClaims(token).getPayload().getSubject();
     }
-}
\ No newline at end of file
+}
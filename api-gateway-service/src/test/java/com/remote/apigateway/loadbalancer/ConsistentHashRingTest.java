@@ -0,0 +1,69 @@
+package com.remote.apigateway.loadbalancer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConsistentHashRingTest {
+
+    private static final int SESSIONS = 10_000;
+
+    @Test
+    void removingANodeOnlyMovesItsOwnSessions() {
+        ConsistentHashRing<String> before = ring(List.of("a", "b", "c", "d"));
+        ConsistentHashRing<String> after = ring(List.of("a", "b", "d"));
+
+        for (int i = 0; i < SESSIONS; i++) {
+            String session = "session-" + i;
+            String owner = before.select(session);
+            if (!owner.equals("c")) {
+                assertEquals(owner, after.select(session));
+            }
+        }
+    }
+
+    @Test
+    void addingANodeMovesAboutItsShareOfSessions() {
+        ConsistentHashRing<String> before = ring(List.of("a", "b", "c"));
+        ConsistentHashRing<String> after = ring(List.of("a", "b", "c", "d"));
+
+        int moved = 0;
+        for (int i = 0; i < SESSIONS; i++) {
+            String session = "session-" + i;
+            String owner = after.select(session);
+            if (!owner.equals(before.select(session))) {
+                assertEquals("d", owner);
+                moved++;
+            }
+        }
+        // Ideally a quarter of the sessions
+        assertTrue(moved > SESSIONS / 6 && moved < SESSIONS / 3, "moved " + moved);
+    }
+
+    @Test
+    void spreadsSessionsEvenly() {
+        ConsistentHashRing<String> ring = ring(List.of("a", "b", "c", "d"));
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < SESSIONS; i++) {
+            counts.merge(ring.select("session-" + i), 1, Integer::sum);
+        }
+        counts.values().forEach(count -> assertTrue(count > SESSIONS / 6 && count < SESSIONS / 3, "count " + count));
+    }
+
+    @Test
+    void emptyRingSelectsNothing() {
+        assertNull(ring(List.of()).select("session"));
+    }
+
+    private static ConsistentHashRing<String> ring(List<String> nodes) {
+        return new ConsistentHashRing<>(nodes, Function.identity(), 160);
+    }
+}
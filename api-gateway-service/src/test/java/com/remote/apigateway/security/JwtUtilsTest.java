@@ -0,0 +1,54 @@
+package com.remote.apigateway.security;
+
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class JwtUtilsTest {
+
+    private static final String SECRET = "test-secret-that-is-long-enough-for-hmac-sha256";
+
+    @Test
+    void verifiesTokenOnceAndServesRepeatsFromTheCache() {
+        JwtUtils jwtUtils = jwtUtils(60_000L);
+        String token = jwtUtils.generateToken("alice");
+
+        Claims first = jwtUtils.verifiedClaims(token);
+        Claims second = jwtUtils.verifiedClaims(token);
+
+        assertEquals("alice", first.getSubject());
+        assertSame(first, second);
+        assertEquals("alice", jwtUtils.extractUsername(token));
+    }
+
+    @Test
+    void rejectsTamperedTokens() {
+        JwtUtils jwtUtils = jwtUtils(60_000L);
+        String token = jwtUtils.generateToken("alice");
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertNull(jwtUtils.verifiedClaims(tampered));
+        assertFalse(jwtUtils.validateToken("not-a-token"));
+    }
+
+    @Test
+    void rejectsExpiredTokens() {
+        JwtUtils jwtUtils = jwtUtils(-1_000L);
+
+        assertFalse(jwtUtils.validateToken(jwtUtils.generateToken("alice")));
+    }
+
+    private static JwtUtils jwtUtils(long expiration) {
+        JwtUtils jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "expiration", expiration);
+        ReflectionTestUtils.setField(jwtUtils, "cacheMaxSize", 100L);
+        jwtUtils.init();
+        return jwtUtils;
+    }
+}
@@ -0,0 +1,32 @@
+package com.remote.benchmarks;
+
+import java.lang.reflect.Field;
+
+final class BenchmarkSupport {
+
+    private BenchmarkSupport() {
+    }
+
+    // Stands in for the @Value injection that the services get from Spring
+    static void setField(Object target, String name, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(name);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot set " + name + " on " + target.getClass().getSimpleName(), e);
+        }
+    }
+
+    // For state the services keep private, such as registered channels
+    @SuppressWarnings("unchecked")
+    static <T> T getField(Object target, String name) {
+        try {
+            Field field = target.getClass().getDeclaredField(name);
+            field.setAccessible(true);
+            return (T) field.get(target);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot read " + name + " of " + target.getClass().getSimpleName(), e);
+        }
+    }
+}
@@ -1,9 +1,11 @@
-package com.remote.consumer.event;
+package com.remote.benchmarks;
 
-import lombok.Getter;
 import org.springframework.context.ApplicationEvent;
 
-@Getter
+/**
+ * Output event the consumer published for every chunk before output went through per-session channels, kept
+ * here as the baseline of {@link OutputPathBenchmark}.
+ */
 public class ContainerOutputEvent extends ApplicationEvent {
     private final String sessionId;
     private final String output;
@@ -14,4 +16,11 @@ public class ContainerOutputEvent extends ApplicationEvent {
         this.output = output;
     }
 
-}
\ No newline at end of file
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public String getOutput() {
+        return output;
+    }
+}
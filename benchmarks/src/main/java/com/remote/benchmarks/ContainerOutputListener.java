@@ -0,0 +1,20 @@
+package com.remote.benchmarks;
+
+import com.remote.consumer.component.WebSocketHandler;
+
+/**
+ * The consumer's former {@code @Async} listener for {@link ContainerOutputEvent}: looks the session up and
+ * sends the chunk to it.
+ */
+public class ContainerOutputListener {
+
+    private final WebSocketHandler wsHandler;
+
+    public ContainerOutputListener(WebSocketHandler wsHandler) {
+        this.wsHandler = wsHandler;
+    }
+
+    public void handleContainerOutput(ContainerOutputEvent event) {
+        wsHandler.sendMessageToSession(event.getSessionId(), event.getOutput());
+    }
+}
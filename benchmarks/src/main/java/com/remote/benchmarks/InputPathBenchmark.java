@@ -0,0 +1,126 @@
+package com.remote.benchmarks;
+
+import com.remote.consumer.component.WebSocketHandler;
+import com.remote.consumer.event.ContainerInputEvent;
+import com.remote.consumer.listener.ContainerEventListener;
+import com.remote.consumer.relay.SessionRelayService;
+import com.remote.consumer.service.ContainerInputService;
+import com.remote.consumer.service.DockerService;
+import com.remote.consumer.stream.SessionInputChannel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.web.socket.TextMessage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latency of one line of stdin from the client to the container's stdin stream, entering at
+ * DockerService.sendInputToContainer and at the WebSocket (message parsing, ContainerInputEvent, listener). A reader
+ * thread stands in for the container and drains the session's input channel; each operation waits until its line
+ * has been read.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InputPathBenchmark {
+
+    private static final String SESSION_ID = "benchmark-session";
+
+    @Param({"16", "1024"})
+    private int lineChars;
+
+    private String line;
+    private TextMessage inputMessage;
+    private long sentBytes;
+    private final AtomicLong readBytes = new AtomicLong();
+
+    private DockerService dockerService;
+    private WebSocketHandler webSocketHandler;
+    private RecordingWebSocketSession session;
+    private SessionInputChannel inputChannel;
+    private Thread reader;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        line = "x".repeat(lineChars);
+        inputMessage = new TextMessage("{\"type\":\"input\",\"data\":\"" + line + "\"}");
+
+        // Without execution.relay.enabled the relay never touches its transport; nothing here talks to Docker
+        SessionRelayService sessionRelayService = new SessionRelayService(null);
+        dockerService = new DockerService(null, event -> { }, null, null, null, null, null, null, null, null,
+                sessionRelayService, null);
+
+        // ContainerInputService publishes to ContainerEventListener, which handles input events synchronously
+        ContainerEventListener[] listener = new ContainerEventListener[1];
+        ContainerInputService containerInputService = new ContainerInputService(
+                event -> listener[0].handleContainerInput((ContainerInputEvent) event));
+        webSocketHandler = new WebSocketHandler(containerInputService, Runnable::run, sessionRelayService);
+        listener[0] = new ContainerEventListener(dockerService, webSocketHandler);
+        session = new RecordingWebSocketSession("ws-1", SESSION_ID);
+
+        // What runInteractiveContainer registers for a running container, with the default buffer size
+        inputChannel = new SessionInputChannel(1 << 20, () -> { });
+        Map<String, SessionInputChannel> channels = BenchmarkSupport.getField(dockerService, "containerInputChannels");
+        channels.put(SESSION_ID, inputChannel);
+
+        reader = new Thread(this::drain, "ContainerStdin");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        inputChannel.close();
+        reader.join(1000);
+    }
+
+    @Benchmark
+    public void sendInputToContainer() {
+        sentBytes += lineChars + 1;
+        dockerService.sendInputToContainer(SESSION_ID, line);
+        awaitRead(sentBytes);
+    }
+
+    @Benchmark
+    public void webSocketInput() throws Exception {
+        sentBytes += lineChars + 1;
+        webSocketHandler.handleMessage(session, inputMessage);
+        awaitRead(sentBytes);
+    }
+
+    private void awaitRead(long bytes) {
+        while (readBytes.get() < bytes) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private void drain() {
+        byte[] buffer = new byte[8192];
+        try (InputStream stdin = inputChannel.inputStream()) {
+            int read;
+            while ((read = stdin.read(buffer, 0, buffer.length)) >= 0) {
+                readBytes.addAndGet(read);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
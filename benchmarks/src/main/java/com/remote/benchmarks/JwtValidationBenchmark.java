@@ -0,0 +1,76 @@
+package com.remote.benchmarks;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.remote.apigateway.security.JwtUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of JwtUtils.validateToken per request at the gateway: a token seen before (verified-claims cache hit), a
+ * token verified from scratch (HMAC and claims parsing, cache disabled) and a token with a bad signature.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtValidationBenchmark {
+
+    private static final String SECRET = "benchmark-secret-benchmark-secret-benchmark";
+
+    private JwtUtils cachingJwtUtils;
+    private JwtUtils uncachedJwtUtils;
+    private String token;
+    private String forgedToken;
+
+    @Setup
+    public void setUp() {
+        cachingJwtUtils = jwtUtils(10_000);
+        uncachedJwtUtils = jwtUtils(0);
+        // A size-0 cache evicts on its maintenance executor, which would leave the token cached for a while
+        BenchmarkSupport.setField(uncachedJwtUtils, "verifiedTokens",
+                Caffeine.newBuilder().maximumSize(0).executor(Runnable::run).build());
+        token = cachingJwtUtils.generateToken("benchmark-user");
+        // Same header and claims, one signature character changed (not the last, which partly encodes padding)
+        int index = token.length() - 10;
+        char replaced = token.charAt(index) == 'A' ? 'B' : 'A';
+        forgedToken = token.substring(0, index) + replaced + token.substring(index + 1);
+        cachingJwtUtils.validateToken(token);
+    }
+
+    @Benchmark
+    public boolean cachedToken() {
+        return cachingJwtUtils.validateToken(token);
+    }
+
+    @Benchmark
+    public boolean uncachedToken() {
+        return uncachedJwtUtils.validateToken(token);
+    }
+
+    @Benchmark
+    public boolean forgedToken() {
+        return uncachedJwtUtils.validateToken(forgedToken);
+    }
+
+    // Defaults of the gateway's application.properties except for the cache size
+    private static JwtUtils jwtUtils(long cacheMaxSize) {
+        JwtUtils jwtUtils = new JwtUtils();
+        BenchmarkSupport.setField(jwtUtils, "secret", SECRET);
+        BenchmarkSupport.setField(jwtUtils, "expiration", 86_400_000L);
+        BenchmarkSupport.setField(jwtUtils, "cacheMaxSize", cacheMaxSize);
+        jwtUtils.init();
+        return jwtUtils;
+    }
+}
@@ -0,0 +1,96 @@
+package com.remote.benchmarks;
+
+import com.github.dockerjava.api.model.StreamType;
+import com.remote.consumer.stream.OutputCapture;
+import com.remote.consumer.stream.OutputFramer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one container output frame in DockerService.runInteractiveContainer: capturing it and framing it into
+ * text chunks for the client, with the chunks going to a sink that only counts them. {@code lines} frames end in a
+ * newline and are emitted straight away, {@code partial} ones (prompts, progress bars) have none and are buffered
+ * until the flush size or delay.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OutputFramingBenchmark {
+
+    @Param({"64", "8192"})
+    private int frameBytes;
+
+    @Param({"lines", "partial"})
+    private String content;
+
+    private byte[] frame;
+    private long emittedChars;
+
+    private ScheduledExecutorService flushScheduler;
+    private OutputFramer outputFramer;
+    private OutputCapture outputCapture;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Mixed ASCII and two-byte characters, so frames also end in the middle of a character
+        String text = "héllo wörld ".repeat(frameBytes / 14 + 1);
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        frame = new byte[frameBytes];
+        System.arraycopy(bytes, 0, frame, 0, frameBytes);
+        if ("lines".equals(content)) {
+            frame[frameBytes - 1] = '\n';
+        }
+
+        flushScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "OutputFlush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Defaults of execution.output.flush-bytes and execution.output.flush-delay-ms
+        outputFramer = new OutputFramer(8192, 20, flushScheduler, chunk -> emittedChars += chunk.length());
+    }
+
+    // A fresh in-memory capture per iteration, so the benchmark never runs into the output limit or the spill file
+    @Setup(Level.Iteration)
+    public void newCapture() {
+        outputCapture = new OutputCapture(65536, 65536, Long.MAX_VALUE, false);
+    }
+
+    @TearDown(Level.Iteration)
+    public void closeCapture() {
+        outputCapture.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        outputFramer.finish();
+        flushScheduler.shutdownNow();
+    }
+
+    @Benchmark
+    public long frame() {
+        if (outputCapture.write(frame)) {
+            outputFramer.append(StreamType.STDOUT, frame);
+        }
+        return emittedChars;
+    }
+}
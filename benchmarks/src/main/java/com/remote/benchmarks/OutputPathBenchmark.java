@@ -0,0 +1,110 @@
+package com.remote.benchmarks;
+
+import com.remote.consumer.component.WebSocketHandler;
+import com.remote.consumer.relay.SessionRelayService;
+import com.remote.consumer.service.ContainerInputService;
+import com.remote.consumer.stream.SessionOutputChannel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.SimpleApplicationEventMulticaster;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of one output chunk from the execution to the client's socket, for the event-bus path
+ * (ContainerOutputEvent, multicast, @Async hand-off, session lookup) and the direct per-session channel. Each
+ * operation sends one chunk and waits until the session has received it; run with {@code -prof gc} for the
+ * allocation per chunk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OutputPathBenchmark {
+
+    private static final String SESSION_ID = "benchmark-session";
+
+    @Param({"16", "512"})
+    private int chunkChars;
+
+    private String chunk;
+    private long sentChars;
+
+    private RecordingWebSocketSession session;
+    private ThreadPoolTaskExecutor asyncExecutor;
+    private ThreadPoolTaskExecutor sendExecutor;
+    private SimpleApplicationEventMulticaster eventBus;
+    private SessionOutputChannel outputChannel;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        chunk = "x".repeat(chunkChars - 1) + "\n";
+
+        // Same executors as AsyncConfig without virtual threads
+        asyncExecutor = new ThreadPoolTaskExecutor();
+        asyncExecutor.setCorePoolSize(5);
+        asyncExecutor.setMaxPoolSize(10);
+        asyncExecutor.setQueueCapacity(25);
+        asyncExecutor.initialize();
+        sendExecutor = new ThreadPoolTaskExecutor();
+        sendExecutor.setCorePoolSize(64);
+        sendExecutor.setMaxPoolSize(64);
+        sendExecutor.setAllowCoreThreadTimeOut(true);
+        sendExecutor.setQueueCapacity(10000);
+        sendExecutor.initialize();
+
+        // Without execution.relay.enabled the relay never touches its transport
+        SessionRelayService sessionRelayService = new SessionRelayService(null);
+        WebSocketHandler webSocketHandler = new WebSocketHandler(new ContainerInputService(event -> { }), sendExecutor,
+                sessionRelayService);
+        BenchmarkSupport.setField(webSocketHandler, "maxPendingChars", 1 << 20);
+        BenchmarkSupport.setField(webSocketHandler, "maxFrameChars", 1 << 16);
+        BenchmarkSupport.setField(webSocketHandler, "maxLagMillis", 60_000L);
+        BenchmarkSupport.setField(webSocketHandler, "maxEarlyChars", 1 << 16);
+        session = new RecordingWebSocketSession("ws-1", SESSION_ID);
+        webSocketHandler.afterConnectionEstablished(session);
+
+        // The @Async proxy of the listener amounts to handing the listener call to the async executor
+        ContainerOutputListener listener = new ContainerOutputListener(webSocketHandler);
+        eventBus = new SimpleApplicationEventMulticaster();
+        eventBus.setTaskExecutor(asyncExecutor);
+        eventBus.addApplicationListener((ApplicationListener<ContainerOutputEvent>) listener::handleContainerOutput);
+
+        outputChannel = webSocketHandler.openOutputChannel(SESSION_ID);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        asyncExecutor.shutdown();
+        sendExecutor.shutdown();
+    }
+
+    @Benchmark
+    public void eventBus() {
+        sentChars += chunk.length();
+        eventBus.multicastEvent(new ContainerOutputEvent(SESSION_ID, chunk));
+        session.awaitReceivedChars(sentChars);
+    }
+
+    @Benchmark
+    public void directChannel() {
+        sentChars += chunk.length();
+        outputChannel.send(chunk);
+        session.awaitReceivedChars(sentChars);
+    }
+}
@@ -0,0 +1,70 @@
+package com.remote.benchmarks;
+
+import com.remote.consumer.component.WebSocketHandler;
+import com.remote.consumer.relay.SessionRelayService;
+import com.remote.consumer.service.ContainerInputService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of handling one client message in WebSocketHandler: resolving the session id from the connection URI,
+ * parsing a JSON input message and the fallback for plain-text input, which is only recognised once JSON parsing
+ * has failed. Input events go to a publisher that drops them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WebSocketMessageBenchmark {
+
+    private static final String SESSION_ID = "3f1c2a9e-8d4b-4c6a-9e2f-7b5d1a0c4e8f";
+
+    private final TextMessage jsonInput = new TextMessage("{\"type\":\"input\",\"data\":\"42\"}");
+    private final TextMessage plainInput = new TextMessage("42");
+
+    private WebSocketHandler webSocketHandler;
+    private WebSocketSession session;
+    private MethodHandle getSessionId;
+
+    @Setup
+    public void setUp() throws Exception {
+        webSocketHandler = new WebSocketHandler(new ContainerInputService(event -> { }), Runnable::run,
+                new SessionRelayService(null));
+        session = new RecordingWebSocketSession("ws-1", SESSION_ID);
+        getSessionId = MethodHandles.privateLookupIn(WebSocketHandler.class, MethodHandles.lookup())
+                .findVirtual(WebSocketHandler.class, "getSessionId",
+                        MethodType.methodType(String.class, WebSocketSession.class));
+    }
+
+    @Benchmark
+    public String resolveSessionId() throws Throwable {
+        return (String) getSessionId.invoke(webSocketHandler, session);
+    }
+
+    @Benchmark
+    public void jsonInput() throws Exception {
+        webSocketHandler.handleMessage(session, jsonInput);
+    }
+
+    @Benchmark
+    public void plainTextInput() throws Exception {
+        webSocketHandler.handleMessage(session, plainInput);
+    }
+}
@@ -1,35 +1,119 @@
 package com.remote.consumer.component;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.remote.consumer.model.SessionStats;
+import com.remote.consumer.relay.RelayMessage;
+import com.remote.consumer.relay.SessionRelayService;
 import com.remote.consumer.service.ContainerInputService;
+import com.remote.consumer.stream.SessionOutbox;
+import com.remote.consumer.stream.SessionOutputChannel;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.*;
+import org.springframework.web.socket.adapter.NativeWebSocketSession;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class WebSocketHandler implements org.springframework.web.socket.WebSocketHandler {
 
     private static final Logger log = LoggerFactory.getLogger(WebSocketHandler.class);
 
-    private final ConcurrentHashMap<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
+    // Tomcat user property, in milliseconds, after which a blocking send fails
+    private static final String BLOCKING_SEND_TIMEOUT = "org.apache.tomcat.websocket.BLOCKING_SEND_TIMEOUT";
+
+    private final ConcurrentHashMap<String, SessionOutbox> sessions = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<String, String> sessionIdMapping = new ConcurrentHashMap<>(); // custom -> websocket
+    private final ConcurrentHashMap<String, SessionOutputChannel> outputChannels = new ConcurrentHashMap<>();
     private final ObjectMapper objectMapper = new ObjectMapper();
     private final ContainerInputService containerInputService;
+    private final TaskExecutor webSocketSendExecutor;
+    private final SessionRelayService sessionRelayService;
+
+    // Disconnects sessions whose socket stalled after the last output, which no enqueue would notice
+    private final ScheduledExecutorService stallSweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "OutboxSweep");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${websocket.outbox.max-pending-chars:262144}")
+    private int maxPendingChars;
+
+    @Value("${websocket.outbox.max-frame-chars:65536}")
+    private int maxFrameChars;
+
+    @Value("${websocket.outbox.max-lag-ms:10000}")
+    private long maxLagMillis;
+
+    @Value("${websocket.outbox.sweep-interval-ms:1000}")
+    private long sweepIntervalMillis;
+
+    @Value("${websocket.output-channel.max-early-chars:65536}")
+    private int maxEarlyChars;
 
     @Autowired
-    public WebSocketHandler(ContainerInputService containerInputService) {
+    public WebSocketHandler(ContainerInputService containerInputService,
+                            @Qualifier("webSocketSendExecutor") TaskExecutor webSocketSendExecutor,
+                            SessionRelayService sessionRelayService) {
         this.containerInputService = containerInputService;
+        this.webSocketSendExecutor = webSocketSendExecutor;
+        this.sessionRelayService = sessionRelayService;
+    }
+
+    // Output of containers running on other nodes for sessions connected here
+    @PostConstruct
+    public void registerRelay() {
+        sessionRelayService.onOutput(message -> {
+            SessionOutbox outbox = sessions.get(message.getSessionId());
+            if (outbox == null) {
+                log.debug("Dropping relayed output for session {}, it is not connected here", message.getSessionId());
+            } else if (message.getType() == RelayMessage.Type.CONTROL) {
+                outbox.sendControl(message.getData());
+            } else {
+                outbox.sendText(message.getData());
+            }
+        });
+        sessionRelayService.onOutputSubscribed(sessionId -> {
+            SessionOutputChannel outputChannel = outputChannels.get(sessionId);
+            if (outputChannel != null) {
+                outputChannel.attachRemote();
+            }
+        });
+        stallSweeper.scheduleWithFixedDelay(this::disconnectStalledSessions, sweepIntervalMillis,
+                sweepIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        stallSweeper.shutdownNow();
     }
 
     @Override
     public void afterConnectionEstablished(WebSocketSession session) throws Exception {
         String sessionId = getSessionId(session);
-        sessions.put(sessionId, session);
+        limitSendTime(session);
+        SessionOutbox outbox = new SessionOutbox(sessionId, session, webSocketSendExecutor,
+                maxPendingChars, maxFrameChars, maxLagMillis);
+        sessions.put(sessionId, outbox);
+        SessionOutputChannel outputChannel = outputChannels.get(sessionId);
+        if (outputChannel != null) {
+            outputChannel.attach(outbox);
+        }
+        sessionRelayService.subscribeOutput(sessionId);
 
         // If we have a custom session ID, map it to the WebSocket session ID
         if (!sessionId.equals(session.getId())) {
@@ -78,7 +162,11 @@ public class WebSocketHandler implements org.springframework.web.socket.WebSocke
     @Override
     public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
         String sessionId = getSessionId(session);
-        sessions.remove(sessionId);
+        SessionOutbox outbox = sessions.remove(sessionId);
+        if (outbox != null) {
+            outbox.close();
+        }
+        sessionRelayService.unsubscribeOutput(sessionId);
         sessionIdMapping.remove(sessionId);
 
         // Clean up container input when connection closes
@@ -92,26 +180,98 @@ public class WebSocketHandler implements org.springframework.web.socket.WebSocke
         return false;
     }
 
-    public void sendMessageToSession(String sessionId, String message) throws IOException {
-        WebSocketSession session = sessions.get(sessionId);
+    // Output path of one execution, bound to the session's outbox now or as soon as its WebSocket connects
+    public SessionOutputChannel openOutputChannel(String sessionId) {
+        return openOutputChannel(sessionId, null);
+    }
+
+    // sendLatency, if given, times the output frames sent to this node's WebSocket for the session
+    public SessionOutputChannel openOutputChannel(String sessionId, Timer sendLatency) {
+        return openOutputChannel(sessionId, sendLatency, maxEarlyChars);
+    }
+
+    // earlyChars overrides how much output is held until the WebSocket connects
+    public SessionOutputChannel openOutputChannel(String sessionId, Timer sendLatency, int earlyChars) {
+        SessionOutputChannel outputChannel = new SessionOutputChannel(earlyChars,
+                text -> sessionRelayService.relayOutput(sessionId, text), sendLatency);
+        outputChannels.put(sessionId, outputChannel);
+        SessionOutbox outbox = sessions.get(sessionId);
+        if (outbox != null) {
+            outputChannel.attach(outbox);
+        } else {
+            sessionRelayService.awaitOutputSubscriber(sessionId);
+        }
+        return outputChannel;
+    }
+
+    public void closeOutputChannel(String sessionId, SessionOutputChannel outputChannel) {
+        if (outputChannels.remove(sessionId, outputChannel)) {
+            sessionRelayService.stopAwaitingOutputSubscriber(sessionId);
+        }
+    }
+
+    // Queues program output for the session; never blocks on the socket
+    public void sendMessageToSession(String sessionId, String message) {
+        SessionOutbox outbox = findOutbox(sessionId);
+        if (outbox != null) {
+            log.debug("Queueing {} characters of output for session {}", message.length(), sessionId);
+            outbox.sendText(message);
+        } else {
+            sessionRelayService.relayOutput(sessionId, message);
+        }
+    }
+
+    // Server-to-client control messages use the same {type, data} shape as client messages
+    public void sendControlMessage(String sessionId, String type, String data) throws IOException {
+        MessageWrapper messageWrapper = new MessageWrapper();
+        messageWrapper.setType(type);
+        messageWrapper.setData(data);
+        String message = objectMapper.writeValueAsString(messageWrapper);
+
+        SessionOutbox outbox = findOutbox(sessionId);
+        if (outbox != null) {
+            outbox.sendControl(message);
+        } else {
+            sessionRelayService.relayControl(sessionId, message);
+        }
+    }
+
+    public List<SessionStats> getSessionStats() {
+        return sessions.values().stream().map(SessionOutbox::stats).toList();
+    }
+
+    private void disconnectStalledSessions() {
+        for (SessionOutbox outbox : sessions.values()) {
+            outbox.disconnectIfStalled();
+        }
+    }
+
+    // Bounds how long a send to a client that stopped reading can hold a sender thread
+    private void limitSendTime(WebSocketSession session) {
+        if (session instanceof NativeWebSocketSession nativeSession) {
+            jakarta.websocket.Session standardSession = nativeSession.getNativeSession(jakarta.websocket.Session.class);
+            if (standardSession != null) {
+                standardSession.getUserProperties().put(BLOCKING_SEND_TIMEOUT, maxLagMillis);
+            }
+        }
+    }
+
+    private SessionOutbox findOutbox(String sessionId) {
+        SessionOutbox outbox = sessions.get(sessionId);
 
         // If not found directly, try to find by mapped session ID
-        if (session == null) {
+        if (outbox == null) {
             String webSocketId = sessionIdMapping.get(sessionId);
             if (webSocketId != null) {
-                session = sessions.get(webSocketId);
+                outbox = sessions.get(webSocketId);
             }
         }
 
-        if (session != null && session.isOpen()) {
-            synchronized (session) {
-                log.info("Sending WebSocket message to session {}: '{}'", sessionId, message.replaceAll("\\s+", " "));
-                session.sendMessage(new TextMessage(message));
-            }
-        } else {
-            log.warn("Cannot send message - session {} is null or closed. Available sessions: {}",
-                    sessionId, sessions.keySet());
+        if (outbox == null || !outbox.getSession().isOpen()) {
+            log.debug("Session {} is not connected to this node, relaying", sessionId);
+            return null;
         }
+        return outbox;
     }
 
     private String getSessionId(WebSocketSession session) {
@@ -1,18 +1,39 @@
 package com.remote.consumer.config;
 
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.AsyncConfigurer;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
 
+/**
+ * With {@code spring.threads.virtual.enabled=true} every executor here runs its tasks on virtual threads, so
+ * executions, output dispatch and WebSocket sends no longer compete for a fixed number of platform threads.
+ * Spring Boot applies the same switch to the RabbitMQ listener containers and to Tomcat.
+ */
 @Configuration
 @EnableAsync
-public class AsyncConfig implements AsyncConfigurer {
+public class AsyncConfig implements AsyncConfigurer, EnvironmentAware {
+
+    private Environment environment;
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
+    }
 
     @Override
     public Executor getAsyncExecutor() {
+        if (virtualThreads()) {
+            return virtualThreadExecutor("ContainerEvent-");
+        }
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(5);
         executor.setMaxPoolSize(10);
@@ -21,4 +42,41 @@ public class AsyncConfig implements AsyncConfigurer {
         executor.initialize();
         return executor;
     }
+
+    // One thread per running container; how many run at once is bounded by ExecutionScheduler
+    @Bean
+    public TaskExecutor executionExecutor() {
+        if (virtualThreads()) {
+            return virtualThreadExecutor("Execution-");
+        }
+        return new SimpleAsyncTaskExecutor("Execution-");
+    }
+
+    // Drains per-session WebSocket outboxes; a stalled send holds its thread until the send time limit, so drains
+    // beyond max-threads wait in the queue and outboxes that do not fit into it disconnect their session
+    @Bean
+    public TaskExecutor webSocketSendExecutor() {
+        if (virtualThreads()) {
+            return virtualThreadExecutor("WebSocketSend-");
+        }
+        int maxThreads = environment.getProperty("websocket.send.max-threads", Integer.class, 64);
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxThreads);
+        executor.setMaxPoolSize(maxThreads);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setQueueCapacity(environment.getProperty("websocket.send.queue-capacity", Integer.class, 10000));
+        executor.setThreadNamePrefix("WebSocketSend-");
+        executor.initialize();
+        return executor;
+    }
+
+    private boolean virtualThreads() {
+        return Threading.VIRTUAL.isActive(environment);
+    }
+
+    private SimpleAsyncTaskExecutor virtualThreadExecutor(String threadNamePrefix) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+        executor.setVirtualThreads(true);
+        return executor;
+    }
 }
@@ -4,4 +4,22 @@ public interface Constants {
     String FILE_EXECUTION_QUEUE = "file-execution-queue";
     String DOCKER_HOST = "tcp://localhost:2375";
     String CONTAINER_NAMESPACE = "code-execution-";
+    String CONTAINER_WORKSPACE = "/workspace";
+    String POOL_ENTRYPOINT = "run.sh";
+    String SESSION_RELAY_EXCHANGE = "session-relay";
+    String EXECUTION_RESULT_QUEUE = "execution-result-queue";
+
+    // Submission message format; absent or 1 is the Base64 JSON message, 2 the binary one
+    String SUBMISSION_FORMAT_HEADER = "x-submission-format";
+    int SUBMISSION_FORMAT_JSON = 1;
+    int SUBMISSION_FORMAT_BINARY = 2;
+    String SUBMISSION_ID_HEADER = "x-submission-id";
+    String SESSION_ID_HEADER = "x-session-id";
+    String LANGUAGE_HEADER = "x-language";
+    String SOURCE_HASH_HEADER = "x-source-hash";
+    String SOURCE_SIZE_HEADER = "x-source-size";
+    // The user the gateway authenticated, the fair-share key on the consumer; absent for anonymous requests
+    String USER_NAME_HEADER = "x-user-name";
+    // Epoch millis at which the submission was published, for the queue wait metric
+    String PUBLISHED_AT_HEADER = "x-published-at";
 }
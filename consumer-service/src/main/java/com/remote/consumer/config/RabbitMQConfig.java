@@ -1,6 +1,11 @@
 package com.remote.consumer.config;
 
+import org.springframework.amqp.core.AcknowledgeMode;
 import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -12,4 +17,22 @@ public class RabbitMQConfig {
     public Queue fileExecutionQueue() {
         return new Queue(Constants.FILE_EXECUTION_QUEUE, true); // The 'true' makes the queue durable
     }
+
+    @Bean
+    public Queue executionResultQueue() {
+        return new Queue(Constants.EXECUTION_RESULT_QUEUE, true);
+    }
+
+    // Submissions are acked by FairShareDispatcher once they are handed to an executor, so at most the fair-share
+    // buffer's worth of them are unacked on this node, and the broker redelivers those if the node goes away
+    @Bean
+    public SimpleRabbitListenerContainerFactory submissionListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory,
+            @Value("${execution.fair-share.buffer:32}") int buffer) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+        factory.setPrefetchCount(buffer);
+        return factory;
+    }
 }
@@ -0,0 +1,109 @@
+package com.remote.consumer.config;
+
+import com.remote.consumer.model.CodeSubmission;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads submissions in both message formats, so producers can be switched over while this consumer runs:
+ * the binary message (metadata in headers, source bytes as the optionally gzipped body) and the original JSON
+ * message with Base64 source. Either way the resulting {@link CodeSubmission} carries the plain source text.
+ * Every other payload is handled as JSON.
+ */
+public class SubmissionMessageConverter implements MessageConverter {
+
+    private final Jackson2JsonMessageConverter json = new Jackson2JsonMessageConverter();
+
+    @Override
+    public Message toMessage(Object object, MessageProperties messageProperties) {
+        return json.toMessage(object, messageProperties);
+    }
+
+    @Override
+    public Object fromMessage(Message message) {
+        MessageProperties properties = message.getMessageProperties();
+        Object format = properties.getHeader(Constants.SUBMISSION_FORMAT_HEADER);
+        if (format != null && numberHeader(properties, Constants.SUBMISSION_FORMAT_HEADER).intValue()
+                == Constants.SUBMISSION_FORMAT_BINARY) {
+            return withPublishedAt(fromBinary(message), properties);
+        }
+        Object payload = json.fromMessage(message);
+        if (payload instanceof CodeSubmission submission) {
+            if (submission.getCodeContent() != null) {
+                submission.setCodeContent(new String(Base64.getDecoder().decode(submission.getCodeContent()),
+                        StandardCharsets.UTF_8));
+            }
+            withPublishedAt(submission, properties);
+        }
+        return payload;
+    }
+
+    // Absent on messages from producers that predate the header
+    private static CodeSubmission withPublishedAt(CodeSubmission submission, MessageProperties properties) {
+        Object publishedAt = properties.getHeader(Constants.PUBLISHED_AT_HEADER);
+        if (publishedAt instanceof Number millis) {
+            submission.setPublishedAt(millis.longValue());
+        }
+        return submission;
+    }
+
+    private CodeSubmission fromBinary(Message message) {
+        MessageProperties properties = message.getMessageProperties();
+        int size = numberHeader(properties, Constants.SOURCE_SIZE_HEADER).intValue();
+        if (size < 0) {
+            throw new MessageConversionException("Negative " + Constants.SOURCE_SIZE_HEADER + " " + size);
+        }
+        byte[] source = message.getBody();
+        if ("gzip".equals(properties.getContentEncoding())) {
+            // Reads no more than the announced size, a corrupt body cannot inflate without bound
+            try (InputStream gzip = new GZIPInputStream(new ByteArrayInputStream(source))) {
+                source = gzip.readNBytes(size);
+                if (gzip.read() != -1) {
+                    throw new MessageConversionException("Submission source is longer than " + size + " bytes");
+                }
+            } catch (IOException e) {
+                throw new MessageConversionException("Could not decompress submission", e);
+            }
+        }
+        if (source.length != size) {
+            throw new MessageConversionException("Submission source is " + source.length
+                    + " bytes, expected " + size);
+        }
+        CodeSubmission submission = new CodeSubmission();
+        submission.setId(stringHeader(properties, Constants.SUBMISSION_ID_HEADER));
+        submission.setSessionId(stringHeader(properties, Constants.SESSION_ID_HEADER));
+        submission.setLanguage(stringHeader(properties, Constants.LANGUAGE_HEADER));
+        submission.setSourceHash(stringHeader(properties, Constants.SOURCE_HASH_HEADER));
+        submission.setUserName(stringHeader(properties, Constants.USER_NAME_HEADER));
+        submission.setCodeContent(new String(source, StandardCharsets.UTF_8));
+        return submission;
+    }
+
+    private static Number numberHeader(MessageProperties properties, String name) {
+        Object value = properties.getHeader(name);
+        if (value instanceof Number number) {
+            return number;
+        }
+        throw new MessageConversionException("Header " + name + " must be a number, got " + value);
+    }
+
+    // Null if absent
+    private static String stringHeader(MessageProperties properties, String name) {
+        Object value = properties.getHeader(name);
+        if (value == null || value instanceof String) {
+            return (String) value;
+        }
+        throw new MessageConversionException("Header " + name + " must be a string, got "
+                + value.getClass().getSimpleName());
+    }
+}
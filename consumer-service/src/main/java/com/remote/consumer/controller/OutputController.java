@@ -0,0 +1,37 @@
+package com.remote.consumer.controller;
+
+import com.remote.consumer.service.ExecutionResultService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Serves the full output this node stored for a submission, at the URL reported in its execution result. Meant
+ * for the submission service, which checks the caller's session before fetching it; the gateway does not route here.
+ */
+@RestController
+@RequestMapping("/outputs")
+public class OutputController {
+
+    private final ExecutionResultService executionResultService;
+
+    @Autowired
+    public OutputController(ExecutionResultService executionResultService) {
+        this.executionResultService = executionResultService;
+    }
+
+    @GetMapping("/{submissionId}")
+    public ResponseEntity<Resource> getOutput(@PathVariable String submissionId) {
+        return executionResultService.storedOutput(submissionId)
+                .map(file -> ResponseEntity.ok()
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .body((Resource) new FileSystemResource(file)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,55 @@
+package com.remote.consumer.controller;
+
+import com.remote.consumer.model.PoolStats;
+import com.remote.consumer.component.WebSocketHandler;
+import com.remote.consumer.model.SchedulerStats;
+import com.remote.consumer.model.SessionStats;
+import com.remote.consumer.service.ContainerPoolService;
+import com.remote.consumer.service.ExecutionScheduler;
+import com.remote.consumer.service.FairShareDispatcher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/stats")
+public class StatsController {
+
+    private final ContainerPoolService containerPoolService;
+    private final ExecutionScheduler executionScheduler;
+    private final FairShareDispatcher fairShareDispatcher;
+    private final WebSocketHandler webSocketHandler;
+
+    @Autowired
+    public StatsController(ContainerPoolService containerPoolService, ExecutionScheduler executionScheduler,
+                           FairShareDispatcher fairShareDispatcher, WebSocketHandler webSocketHandler) {
+        this.containerPoolService = containerPoolService;
+        this.executionScheduler = executionScheduler;
+        this.fairShareDispatcher = fairShareDispatcher;
+        this.webSocketHandler = webSocketHandler;
+    }
+
+    @GetMapping("/pool")
+    public ResponseEntity<List<PoolStats>> getPoolStats() {
+        return ResponseEntity.ok(containerPoolService.getStats());
+    }
+
+    @GetMapping("/scheduler")
+    public ResponseEntity<SchedulerStats> getSchedulerStats() {
+        return ResponseEntity.ok(executionScheduler.getStats());
+    }
+
+    @GetMapping("/queue")
+    public ResponseEntity<Integer> getQueuedSubmissions() {
+        return ResponseEntity.ok(fairShareDispatcher.queued());
+    }
+
+    @GetMapping("/sessions")
+    public ResponseEntity<List<SessionStats>> getSessionStats() {
+        return ResponseEntity.ok(webSocketHandler.getSessionStats());
+    }
+}
@@ -0,0 +1,21 @@
+package com.remote.consumer.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+@Getter
+public class InputBackpressureEvent extends ApplicationEvent {
+    private final String sessionId;
+    private final State state;
+
+    public enum State {
+        PAUSED, RESUMED, REJECTED
+    }
+
+    public InputBackpressureEvent(String sessionId, State state) {
+        super(sessionId);
+        this.sessionId = sessionId;
+        this.state = state;
+    }
+
+}
@@ -1,7 +1,7 @@
 package com.remote.consumer.listener;
 
 import com.remote.consumer.event.ContainerInputEvent;
-import com.remote.consumer.event.ContainerOutputEvent;
+import com.remote.consumer.event.InputBackpressureEvent;
 import com.remote.consumer.service.DockerService;
 import com.remote.consumer.component.WebSocketHandler;
 import org.slf4j.Logger;
@@ -29,12 +29,16 @@ public class ContainerEventListener {
 
     @EventListener
     @Async
-    public void handleContainerOutput(ContainerOutputEvent event) {
+    public void handleInputBackpressure(InputBackpressureEvent event) {
+        String type = switch (event.getState()) {
+            case PAUSED -> "input_paused";
+            case RESUMED -> "input_resumed";
+            case REJECTED -> "input_rejected";
+        };
         try {
-            log.info("Sending output to WebSocket for session {}: '{}'", event.getSessionId(), event.getOutput().replaceAll("\\s+", " "));
-            wsHandler.sendMessageToSession(event.getSessionId(), event.getOutput());
+            wsHandler.sendControlMessage(event.getSessionId(), type, null);
         } catch (IOException e) {
-            log.error("Error sending output to WebSocket for session {}", event.getSessionId(), e);
+            log.error("Error sending {} to WebSocket for session {}", type, event.getSessionId(), e);
         }
     }
 
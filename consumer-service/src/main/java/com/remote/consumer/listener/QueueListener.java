@@ -1,40 +1,41 @@
 package com.remote.consumer.listener;
 
-import com.remote.consumer.service.DockerService;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import com.rabbitmq.client.Channel;
+import com.remote.consumer.service.FairShareDispatcher;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
-import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.AmqpHeaders;
 import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Service;
 
 import com.remote.consumer.config.Constants;
+import com.remote.consumer.config.SubmissionMessageConverter;
 import com.remote.consumer.model.CodeSubmission;
 
-import java.io.IOException;
-
 @Service
 public class QueueListener {
 
-    private static final Logger log = LoggerFactory.getLogger(QueueListener.class);
-
-    private final DockerService dockerService;
+    private final FairShareDispatcher fairShareDispatcher;
 
     @Autowired
-    public QueueListener(DockerService dockerService) {
-        this.dockerService = dockerService;
+    public QueueListener(FairShareDispatcher fairShareDispatcher) {
+        this.fairShareDispatcher = fairShareDispatcher;
     }
 
+    // Accepts the binary and the JSON submission message
     @Bean
-    public MessageConverter jsonMessageConverter() {
-        return new Jackson2JsonMessageConverter();
+    public MessageConverter submissionMessageConverter() {
+        return new SubmissionMessageConverter();
     }
 
-    @RabbitListener(queues = Constants.FILE_EXECUTION_QUEUE, concurrency = "1")
-    public void receiveCodeExecution(CodeSubmission codeSubmission) throws InterruptedException, IOException {
-        byte[] containerResponse = dockerService.executeCode(codeSubmission);
-        log.info("Container response: {}", new String(containerResponse));
+    // The dispatcher acks the message once the submission is handed to an executor. Until then it counts against
+    // the prefetch, which equals the fair-share buffer, so a backlog beyond the buffer waits in RabbitMQ.
+    @RabbitListener(queues = Constants.FILE_EXECUTION_QUEUE, concurrency = "1",
+            containerFactory = "submissionListenerContainerFactory")
+    public void receiveCodeExecution(CodeSubmission codeSubmission, Channel channel,
+                                     @Header(AmqpHeaders.DELIVERY_TAG) long deliveryTag) throws InterruptedException {
+        fairShareDispatcher.submit(codeSubmission, channel, deliveryTag);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,24 @@
+package com.remote.consumer.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Outcome of one test case of a judged submission, cases are numbered from 1
+@Getter
+@AllArgsConstructor
+public class CaseVerdict {
+    public static final String ACCEPTED = "ACCEPTED";
+    public static final String WRONG_ANSWER = "WRONG_ANSWER";
+    public static final String TIME_LIMIT_EXCEEDED = "TIME_LIMIT_EXCEEDED";
+    public static final String OUTPUT_LIMIT_EXCEEDED = "OUTPUT_LIMIT_EXCEEDED";
+    public static final String RUNTIME_ERROR = "RUNTIME_ERROR";
+    public static final String COMPILE_ERROR = "COMPILE_ERROR";
+    // The container ended before the case ran
+    public static final String NOT_RUN = "NOT_RUN";
+
+    private final int caseIndex;
+    private final String verdict;
+    // Null if the case did not run
+    private final Integer exitCode;
+    private final long timeMillis;
+}
@@ -3,6 +3,7 @@ package com.remote.consumer.model;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.util.List;
 import java.util.UUID;
 
 @Entity
@@ -19,6 +20,18 @@ public class CodeSubmission {
     private String id;
     private String sessionId;
     private String codeContent;
+    private String sourceHash;
     private String language;
     private int userId;
+    // The user the gateway authenticated, null for anonymous submissions
+    @Transient
+    private String userName;
+    // Only set for judged submissions
+    @Transient
+    private List<TestCase> testCases;
+    @Transient
+    private Long caseTimeLimitMillis;
+    // Epoch millis at which the submission service published it, null if it did not say
+    @Transient
+    private Long publishedAt;
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.remote.consumer.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class ExecutionCost {
+    private final double cpus;
+    private final long memoryMb;
+}
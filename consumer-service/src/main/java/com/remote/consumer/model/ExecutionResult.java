@@ -0,0 +1,33 @@
+package com.remote.consumer.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.List;
+
+// Published to the submission service once an execution is over
+@Getter
+@AllArgsConstructor
+public class ExecutionResult {
+    private final String submissionId;
+    private final String sessionId;
+    private final String status;
+    private final Integer exitCode;
+    private final String terminationReason;
+    private final boolean compileCached;
+    private final boolean resultCached;
+    private final long queuedMillis;
+    private final long setupMillis;
+    private final long runMillis;
+    private final long totalMillis;
+    private final long outputBytes;
+    private final boolean outputTruncated;
+    // URL of the full output on the node that stored it, see OutputController; null if it was not stored
+    private final String outputUri;
+    // The node that stored the output, which serves it for the retention period
+    private final String outputNode;
+    private final Instant finishedAt;
+    // Only set for judged submissions
+    private final List<CaseVerdict> verdicts;
+}
@@ -0,0 +1,38 @@
+package com.remote.consumer.model;
+
+import com.remote.consumer.stream.OutputCapture;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.Closeable;
+import java.util.List;
+
+/**
+ * What one execution left behind: its captured output, how the container ended and how long the setup
+ * (workspace, container, compile cache) and run phases took. Closing it releases the output capture.
+ */
+@Getter
+@Setter
+public class ExecutionRun implements Closeable {
+    private OutputCapture output;
+    // Null if the container's exit status could not be read
+    private Integer exitCode;
+    // Why the container was killed, null if it exited by itself
+    private String terminationReason;
+    private boolean compileCached;
+    // Replayed from the result cache without running a container
+    private boolean resultCached;
+    // Whether the program was sent any stdin
+    private boolean inputUsed;
+    private long setupMillis;
+    private long runMillis;
+    // Per-case outcome of a judged submission, null otherwise
+    private List<CaseVerdict> verdicts;
+
+    @Override
+    public void close() {
+        if (output != null) {
+            output.close();
+        }
+    }
+}
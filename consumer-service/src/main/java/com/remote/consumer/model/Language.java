@@ -0,0 +1,53 @@
+package com.remote.consumer.model;
+
+import lombok.Getter;
+
+@Getter
+public enum Language {
+    PYTHON("python:3.9", "script.py", null, 0.5, 256),
+    JAVA("openjdk:17", "Solution.java", "*.class", 1.0, 512),
+    JAVASCRIPT("node:16", "script.js", null, 0.5, 256),
+    C("gcc:latest", "solution.c", "solution", 1.0, 256),
+    CPP("gcc:latest", "solution.cpp", "solution", 1.0, 512);
+
+    private final String imageName;
+    private final String fileName;
+    // Files the compile step leaves in /workspace, null for interpreted languages
+    private final String artifactGlob;
+    // Defaults for the resource profile, overridable with execution.limits.<language>.cpus / .memory-mb
+    private final double defaultCpus;
+    private final long defaultMemoryMb;
+
+    Language(String imageName, String fileName, String artifactGlob, double defaultCpus, long defaultMemoryMb) {
+        this.imageName = imageName;
+        this.fileName = fileName;
+        this.artifactGlob = artifactGlob;
+        this.defaultCpus = defaultCpus;
+        this.defaultMemoryMb = defaultMemoryMb;
+    }
+
+    // Property-friendly key, e.g. execution.pool.size.python
+    public String key() {
+        return name().toLowerCase();
+    }
+
+    public static Language from(String language) {
+        if (language == null) {
+            throw new IllegalArgumentException("Language must be provided to execute code.");
+        }
+        switch (language.toLowerCase()) {
+            case "python", "py":
+                return PYTHON;
+            case "java":
+                return JAVA;
+            case "javascript", "js":
+                return JAVASCRIPT;
+            case "c":
+                return C;
+            case "cpp", "c++":
+                return CPP;
+            default:
+                throw new IllegalArgumentException(String.format("%s language is not supported.", language));
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.remote.consumer.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class PoolStats {
+    private final String language;
+    private final String imageName;
+    private final int targetSize;
+    private final int idle;
+    private final long hits;
+    private final long misses;
+    private final long evicted;
+}
@@ -0,0 +1,19 @@
+package com.remote.consumer.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.nio.file.Path;
+import java.time.Instant;
+
+// A created-but-not-started container whose /workspace is bound to a host directory we own
+@Getter
+@ToString
+@AllArgsConstructor
+public class PooledContainer {
+    private final String containerId;
+    private final Language language;
+    private final Path workspace;
+    private final Instant createdAt;
+}
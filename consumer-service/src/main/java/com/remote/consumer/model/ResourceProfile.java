@@ -0,0 +1,18 @@
+package com.remote.consumer.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class ResourceProfile {
+    private final double cpus;
+    private final long memoryMb;
+    private final long pidsLimit;
+    private final long openFiles;
+    // Total CPU time of all processes in the container
+    private final long cpuTimeSeconds;
+    private final long wallClockSeconds;
+}
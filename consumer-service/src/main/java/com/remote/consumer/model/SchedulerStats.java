@@ -0,0 +1,15 @@
+package com.remote.consumer.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class SchedulerStats {
+    private final double nodeCpus;
+    private final long nodeMemoryMb;
+    private final double admittedCpus;
+    private final long admittedMemoryMb;
+    private final int running;
+    private final int waiting;
+}
@@ -0,0 +1,15 @@
+package com.remote.consumer.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class SessionStats {
+    private final String sessionId;
+    private final int pendingChars;
+    private final long lagMillis;
+    private final long sentFrames;
+    private final long coalescedChunks;
+    private final long droppedChars;
+}
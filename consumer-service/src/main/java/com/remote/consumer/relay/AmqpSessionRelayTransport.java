@@ -0,0 +1,132 @@
+package com.remote.consumer.relay;
+
+import com.remote.consumer.config.Constants;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Base64UrlNamingStrategy;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Relays session messages through a topic exchange. Every node consumes from its own exclusive, auto-deleted
+ * queue and binds it to the exchange with the routing keys of the sessions it serves. The bindings are
+ * re-declared whenever the broker connection is re-established. Messages that cannot be read are dropped rather
+ * than requeued, since they would only fail again.
+ */
+@Component
+public class AmqpSessionRelayTransport implements SessionRelayTransport {
+
+    private static final Logger log = LoggerFactory.getLogger(AmqpSessionRelayTransport.class);
+
+    static final String TYPE_HEADER = "x-relay-type";
+    static final String SESSION_HEADER = "x-session-id";
+
+    private final ConnectionFactory connectionFactory;
+    private final AmqpAdmin amqpAdmin;
+    private final RabbitTemplate rabbitTemplate;
+
+    private final TopicExchange exchange = new TopicExchange(Constants.SESSION_RELAY_EXCHANGE, true, false);
+    private final Queue nodeQueue = new AnonymousQueue(new Base64UrlNamingStrategy(Constants.SESSION_RELAY_EXCHANGE + "."));
+    private final Set<String> routingKeys = ConcurrentHashMap.newKeySet();
+    private SimpleMessageListenerContainer listenerContainer;
+
+    @Autowired
+    public AmqpSessionRelayTransport(ConnectionFactory connectionFactory, AmqpAdmin amqpAdmin,
+                                     RabbitTemplate rabbitTemplate) {
+        this.connectionFactory = connectionFactory;
+        this.amqpAdmin = amqpAdmin;
+        this.rabbitTemplate = rabbitTemplate;
+    }
+
+    @Override
+    public void start(Consumer<RelayMessage> receiver) {
+        declare();
+        connectionFactory.addConnectionListener(connection -> declare());
+
+        listenerContainer = new SimpleMessageListenerContainer(connectionFactory);
+        listenerContainer.setQueueNames(nodeQueue.getName());
+        listenerContainer.setDefaultRequeueRejected(false);
+        listenerContainer.setMessageListener(message -> receiver.accept(fromMessage(message)));
+        listenerContainer.start();
+        log.info("Session relay listening on {}", nodeQueue.getName());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (listenerContainer != null) {
+            listenerContainer.stop();
+        }
+    }
+
+    @Override
+    public void bind(String routingKey) {
+        routingKeys.add(routingKey);
+        amqpAdmin.declareBinding(binding(routingKey));
+    }
+
+    @Override
+    public void unbind(String routingKey) {
+        if (routingKeys.remove(routingKey)) {
+            amqpAdmin.removeBinding(binding(routingKey));
+        }
+    }
+
+    @Override
+    public void publish(String routingKey, RelayMessage message) {
+        byte[] body = message.getData() != null ? message.getData().getBytes(StandardCharsets.UTF_8) : new byte[0];
+        rabbitTemplate.send(exchange.getName(), routingKey, MessageBuilder.withBody(body)
+                .setHeader(TYPE_HEADER, message.getType().name())
+                .setHeader(SESSION_HEADER, message.getSessionId())
+                // Only meaningful while both nodes are up
+                .setDeliveryMode(MessageDeliveryMode.NON_PERSISTENT)
+                .build());
+    }
+
+    // Exchange, node queue and all current bindings; the queue disappears together with the connection
+    private void declare() {
+        amqpAdmin.declareExchange(exchange);
+        amqpAdmin.declareQueue(nodeQueue);
+        for (String routingKey : routingKeys) {
+            amqpAdmin.declareBinding(binding(routingKey));
+        }
+    }
+
+    private Binding binding(String routingKey) {
+        return BindingBuilder.bind(nodeQueue).to(exchange).with(routingKey);
+    }
+
+    static RelayMessage fromMessage(Message message) {
+        Object type = message.getMessageProperties().getHeader(TYPE_HEADER);
+        Object sessionId = message.getMessageProperties().getHeader(SESSION_HEADER);
+        if (!(sessionId instanceof String) || !(type instanceof String)) {
+            throw new AmqpRejectAndDontRequeueException("Relay message without " + TYPE_HEADER + " or " + SESSION_HEADER);
+        }
+        RelayMessage.Type relayType;
+        try {
+            relayType = RelayMessage.Type.valueOf((String) type);
+        } catch (IllegalArgumentException e) {
+            throw new AmqpRejectAndDontRequeueException("Unknown relay message type " + type, e);
+        }
+        String data = message.getBody().length > 0 ? new String(message.getBody(), StandardCharsets.UTF_8) : null;
+        return new RelayMessage(relayType, (String) sessionId, data);
+    }
+}
@@ -0,0 +1,25 @@
+package com.remote.consumer.relay;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class RelayMessage {
+
+    public enum Type {
+        // Towards the node holding the session's WebSocket
+        OUTPUT,
+        CONTROL,
+        // Towards the node running the session's container
+        INPUT,
+        CLOSE_INPUT,
+        // Handshake: output is waiting for a subscriber, answered by the node that subscribed to it
+        OUTPUT_PENDING,
+        OUTPUT_SUBSCRIBED
+    }
+
+    private final Type type;
+    private final String sessionId;
+    private final String data;
+}
@@ -0,0 +1,174 @@
+package com.remote.consumer.relay;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Connects a session's WebSocket and its container when they live on different consumer nodes. The node holding
+ * the WebSocket subscribes to the session's output, the node running the container to its input; whichever side
+ * has no local counterpart relays what it has to the other node.
+ * <p>
+ * Output published before the WebSocket node has bound the session's output key would be dropped by the broker,
+ * so the container node holds it until it learns of a subscriber: it asks with OUTPUT_PENDING, and the node
+ * holding the WebSocket answers with OUTPUT_SUBSCRIBED, which it also sends whenever it subscribes.
+ * <p>
+ * Local delivery is registered through {@link #onOutput} and {@link #onInput}, so this service does not depend
+ * on the WebSocket handler or the Docker service.
+ */
+@Service
+public class SessionRelayService {
+
+    private static final Logger log = LoggerFactory.getLogger(SessionRelayService.class);
+
+    private final SessionRelayTransport transport;
+
+    private volatile Consumer<RelayMessage> outputHandler = message -> { };
+    private volatile Consumer<RelayMessage> inputHandler = message -> { };
+    private volatile Consumer<String> subscribedHandler = sessionId -> { };
+    private final Set<String> outputSubscriptions = ConcurrentHashMap.newKeySet();
+
+    @Value("${execution.relay.enabled:true}")
+    private boolean enabled;
+
+    @Autowired
+    public SessionRelayService(SessionRelayTransport transport) {
+        this.transport = transport;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (enabled) {
+            transport.start(this::receive);
+        }
+    }
+
+    // Delivers OUTPUT and CONTROL messages relayed to this node
+    public void onOutput(Consumer<RelayMessage> handler) {
+        this.outputHandler = handler;
+    }
+
+    // Delivers INPUT and CLOSE_INPUT messages relayed to this node
+    public void onInput(Consumer<RelayMessage> handler) {
+        this.inputHandler = handler;
+    }
+
+    // Receives the session ids of output a node has subscribed to, see awaitOutputSubscriber
+    public void onOutputSubscribed(Consumer<String> handler) {
+        this.subscribedHandler = handler;
+    }
+
+    public void subscribeOutput(String sessionId) {
+        if (bind(routingKey("output", sessionId))) {
+            outputSubscriptions.add(sessionId);
+            publish("subscribed", new RelayMessage(RelayMessage.Type.OUTPUT_SUBSCRIBED, sessionId, null));
+        }
+    }
+
+    public void unsubscribeOutput(String sessionId) {
+        if (enabled) {
+            outputSubscriptions.remove(sessionId);
+            unbind(routingKey("output", sessionId));
+        }
+    }
+
+    // For output without a local WebSocket: reports through onOutputSubscribed once another node subscribes to it
+    public void awaitOutputSubscriber(String sessionId) {
+        if (bind(routingKey("subscribed", sessionId))) {
+            publish("output", new RelayMessage(RelayMessage.Type.OUTPUT_PENDING, sessionId, null));
+        }
+    }
+
+    public void stopAwaitingOutputSubscriber(String sessionId) {
+        unbind(routingKey("subscribed", sessionId));
+    }
+
+    public void subscribeInput(String sessionId) {
+        bind(routingKey("input", sessionId));
+    }
+
+    public void unsubscribeInput(String sessionId) {
+        unbind(routingKey("input", sessionId));
+    }
+
+    public void relayOutput(String sessionId, String text) {
+        publish("output", new RelayMessage(RelayMessage.Type.OUTPUT, sessionId, text));
+    }
+
+    public void relayControl(String sessionId, String message) {
+        publish("output", new RelayMessage(RelayMessage.Type.CONTROL, sessionId, message));
+    }
+
+    public void relayInput(String sessionId, String input) {
+        publish("input", new RelayMessage(RelayMessage.Type.INPUT, sessionId, input));
+    }
+
+    public void relayCloseInput(String sessionId) {
+        publish("input", new RelayMessage(RelayMessage.Type.CLOSE_INPUT, sessionId, null));
+    }
+
+    private void publish(String direction, RelayMessage message) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            transport.publish(routingKey(direction, message.getSessionId()), message);
+        } catch (Exception e) {
+            log.warn("Could not relay {} for session {}: {}", message.getType(), message.getSessionId(), e.getMessage());
+        }
+    }
+
+    // Like publish, a broker failure only costs the cross-node half of a session, never the local one
+    private boolean bind(String routingKey) {
+        if (!enabled) {
+            return false;
+        }
+        try {
+            transport.bind(routingKey);
+            return true;
+        } catch (Exception e) {
+            log.warn("Could not bind relay key {}: {}", routingKey, e.getMessage());
+            return false;
+        }
+    }
+
+    private void unbind(String routingKey) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            transport.unbind(routingKey);
+        } catch (Exception e) {
+            log.warn("Could not unbind relay key {}: {}", routingKey, e.getMessage());
+        }
+    }
+
+    private void receive(RelayMessage message) {
+        switch (message.getType()) {
+            case OUTPUT, CONTROL -> outputHandler.accept(message);
+            case INPUT, CLOSE_INPUT -> inputHandler.accept(message);
+            case OUTPUT_PENDING -> {
+                if (outputSubscriptions.contains(message.getSessionId())) {
+                    publish("subscribed", new RelayMessage(RelayMessage.Type.OUTPUT_SUBSCRIBED,
+                            message.getSessionId(), null));
+                }
+            }
+            case OUTPUT_SUBSCRIBED -> subscribedHandler.accept(message.getSessionId());
+        }
+    }
+
+    // Session ids come from clients; encoding them keeps '.', '*' and '#' from acting as topic separators or wildcards
+    static String routingKey(String direction, String sessionId) {
+        return direction + "." + Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(sessionId.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,18 @@
+package com.remote.consumer.relay;
+
+import java.util.function.Consumer;
+
+/**
+ * Topic-style transport between consumer nodes. Each node receives the messages published with a routing key
+ * it has bound.
+ */
+public interface SessionRelayTransport {
+
+    void start(Consumer<RelayMessage> receiver);
+
+    void bind(String routingKey);
+
+    void unbind(String routingKey);
+
+    void publish(String routingKey, RelayMessage message);
+}
@@ -0,0 +1,270 @@
+package com.remote.consumer.service;
+
+import com.remote.consumer.model.Language;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Size-bounded LRU cache of compiler output (.class files or the native binary), keyed by the hash of
+ * language, compiler image and source. Entries live on disk; only their sizes are tracked in memory, so
+ * the cache starts empty after a restart.
+ * <p>
+ * The program runs as root in the same writable workspace as the compiler, so artifacts are never taken from
+ * the workspace after the run. On a miss the compile command reports that it is done and holds the program back
+ * (see {@link #awaitSnapshot}) until a {@link Snapshot} has copied the artifacts out of the workspace.
+ */
+@Service
+public class CompileCacheService {
+
+    private static final Logger log = LoggerFactory.getLogger(CompileCacheService.class);
+
+    static final String COMPILED_MARKER = ".compiled";
+    static final String SNAPSHOT_TAKEN_MARKER = ".snapshot_taken";
+
+    // Access-ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final ReentrantLock entriesLock = new ReentrantLock();
+    private long totalBytes;
+
+    @Value("${execution.compile-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${execution.compile-cache.max-bytes:268435456}")
+    private long maxBytes;
+
+    @Value("${execution.compile-cache.dir:${java.io.tmpdir}/code_exec_compile_cache}")
+    private Path cacheDir;
+
+    @Value("${execution.compile-cache.snapshot-poll-ms:5}")
+    private long snapshotPollMillis;
+
+    private final ScheduledExecutorService snapshotScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "CompileSnapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        FileSystemUtils.deleteRecursively(cacheDir);
+        Files.createDirectories(cacheDir);
+    }
+
+    @PreDestroy
+    public void stop() {
+        snapshotScheduler.shutdownNow();
+    }
+
+    public boolean isCacheable(Language language) {
+        return enabled && language.getArtifactGlob() != null;
+    }
+
+    public String key(Language language, String source) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(language.key().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(language.getImageName().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(source.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Copies cached artifacts into the workspace; returns false on a miss so the caller compiles as usual
+    public boolean restore(String key, Path workspace) {
+        entriesLock.lock();
+        try {
+            if (entries.get(key) == null) {
+                return false;
+            }
+        } finally {
+            entriesLock.unlock();
+        }
+        // Copy rather than hard link: the program runs as root and could otherwise rewrite the cached files
+        try (DirectoryStream<Path> artifacts = Files.newDirectoryStream(cacheDir.resolve(key))) {
+            for (Path artifact : artifacts) {
+                Files.copy(artifact, workspace.resolve(artifact.getFileName()), StandardCopyOption.COPY_ATTRIBUTES);
+            }
+            return true;
+        } catch (IOException e) {
+            // Evicted between the lookup and the copy
+            log.debug("Compile cache entry {} could not be restored: {}", key, e.getMessage());
+            return false;
+        }
+    }
+
+    // Appended to the compile command of a miss; the program only starts once the snapshot has been taken
+    public String awaitSnapshot(String compileCommand) {
+        return compileCommand + " && touch " + COMPILED_MARKER
+                + " && while [ ! -e " + SNAPSHOT_TAKEN_MARKER + " ]; do sleep 0.01; done";
+    }
+
+    // Watches the workspace for the end of the compile step; the caller has to call {@link Snapshot#stop()}
+    public Snapshot watch(Language language, Path workspace) {
+        Snapshot snapshot = new Snapshot(language, workspace);
+        snapshot.lock.lock();
+        try {
+            snapshot.poll = snapshotScheduler.scheduleWithFixedDelay(snapshot::poll, snapshotPollMillis,
+                    snapshotPollMillis, TimeUnit.MILLISECONDS);
+        } finally {
+            snapshot.lock.unlock();
+        }
+        return snapshot;
+    }
+
+    // Moves a snapshot into the cache, or discards it if it is empty, too big or already cached
+    public void store(String key, Path snapshot) {
+        try {
+            long size = 0;
+            try (DirectoryStream<Path> artifacts = Files.newDirectoryStream(snapshot)) {
+                for (Path artifact : artifacts) {
+                    size += Files.size(artifact);
+                }
+            }
+            if (size == 0 || size > maxBytes) {
+                FileSystemUtils.deleteRecursively(snapshot);
+                return;
+            }
+
+            List<String> evicted = new ArrayList<>();
+            entriesLock.lock();
+            try {
+                if (entries.containsKey(key)) {
+                    evicted.add(snapshot.getFileName().toString());
+                } else {
+                    Files.move(snapshot, cacheDir.resolve(key), StandardCopyOption.ATOMIC_MOVE);
+                    entries.put(key, size);
+                    totalBytes += size;
+                    Iterator<Map.Entry<String, Long>> lru = entries.entrySet().iterator();
+                    while (totalBytes > maxBytes && lru.hasNext()) {
+                        Map.Entry<String, Long> eldest = lru.next();
+                        totalBytes -= eldest.getValue();
+                        evicted.add(eldest.getKey());
+                        lru.remove();
+                    }
+                }
+            } finally {
+                entriesLock.unlock();
+            }
+            for (String name : evicted) {
+                FileSystemUtils.deleteRecursively(cacheDir.resolve(name));
+            }
+            log.info("Stored compile artifacts for {} ({} bytes, {} evicted)", key, size, evicted.size());
+        } catch (IOException e) {
+            log.warn("Could not store compile artifacts for {}", key, e);
+            discard(snapshot);
+        }
+    }
+
+    // Copies the compiler output out of the workspace into a directory of the cache that is not an entry yet
+    Path copyArtifacts(Language language, Path workspace) throws IOException {
+        Path staging = Files.createDirectories(cacheDir.resolve("snapshot-" + UUID.randomUUID()));
+        try (DirectoryStream<Path> artifacts = Files.newDirectoryStream(workspace, language.getArtifactGlob())) {
+            for (Path artifact : artifacts) {
+                if (Files.isRegularFile(artifact, LinkOption.NOFOLLOW_LINKS)) {
+                    Files.copy(artifact, staging.resolve(artifact.getFileName()), StandardCopyOption.COPY_ATTRIBUTES,
+                            LinkOption.NOFOLLOW_LINKS);
+                }
+            }
+        } catch (IOException e) {
+            discard(staging);
+            throw e;
+        }
+        return staging;
+    }
+
+    private void discard(Path snapshot) {
+        try {
+            FileSystemUtils.deleteRecursively(snapshot);
+        } catch (IOException ignored) {
+            // best effort
+        }
+    }
+
+    /**
+     * Copies the artifacts out of the workspace once the compile step has created {@link #COMPILED_MARKER},
+     * then lets the program start by creating {@link #SNAPSHOT_TAKEN_MARKER}, even if the copy failed.
+     */
+    public class Snapshot {
+
+        private final Language language;
+        private final Path workspace;
+        private final ReentrantLock lock = new ReentrantLock();
+        private ScheduledFuture<?> poll;
+        private boolean done;
+        private Path artifacts;
+
+        private Snapshot(Language language, Path workspace) {
+            this.language = language;
+            this.workspace = workspace;
+        }
+
+        private void poll() {
+            lock.lock();
+            try {
+                if (done || !Files.exists(workspace.resolve(COMPILED_MARKER))) {
+                    return;
+                }
+                done = true;
+                try {
+                    artifacts = copyArtifacts(language, workspace);
+                } catch (IOException e) {
+                    log.warn("Could not snapshot compile artifacts in {}", workspace, e);
+                }
+                try {
+                    Files.createFile(workspace.resolve(SNAPSHOT_TAKEN_MARKER));
+                } catch (IOException e) {
+                    log.warn("Could not release the program in {}", workspace, e);
+                }
+            } finally {
+                lock.unlock();
+            }
+            poll.cancel(false);
+        }
+
+        // Stops watching; returns the artifacts, or null if the compile step never finished or failed
+        public Path stop() {
+            lock.lock();
+            try {
+                done = true;
+                poll.cancel(false);
+                return artifacts;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
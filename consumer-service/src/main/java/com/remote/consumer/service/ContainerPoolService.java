@@ -0,0 +1,219 @@
+package com.remote.consumer.service;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.command.CreateContainerResponse;
+import com.github.dockerjava.api.model.HostConfig;
+import com.remote.consumer.config.Constants;
+import com.remote.consumer.model.Language;
+import com.remote.consumer.model.PoolStats;
+import com.remote.consumer.model.PooledContainer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps a small number of created-but-not-started containers per language so that an execution only pays
+ * for starting the container. Pooled containers run {@code /workspace/run.sh}, which is written together
+ * with the source file when the container is handed out.
+ * <p>
+ * All container creation and removal happens on a single maintenance thread, so refills never race each other.
+ */
+@Service
+public class ContainerPoolService {
+
+    private static final Logger log = LoggerFactory.getLogger(ContainerPoolService.class);
+
+    private final DockerClient dockerClient;
+    private final Environment environment;
+    private final ImageRegistryService imageRegistryService;
+    private final ResourceProfileService resourceProfileService;
+
+    private final Map<Language, ConcurrentLinkedDeque<PooledContainer>> idle = new EnumMap<>(Language.class);
+    private final Map<Language, AtomicLong> hits = new EnumMap<>(Language.class);
+    private final Map<Language, AtomicLong> misses = new EnumMap<>(Language.class);
+    private final Map<Language, AtomicLong> evicted = new EnumMap<>(Language.class);
+
+    private final ScheduledExecutorService maintenance = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "ContainerPool");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${execution.pool.enabled:true}")
+    private boolean enabled;
+
+    @Value("${execution.pool.default-size:1}")
+    private int defaultSize;
+
+    @Value("${execution.pool.idle-timeout-seconds:600}")
+    private long idleTimeoutSeconds;
+
+    @Value("${execution.pool.maintenance-interval-seconds:30}")
+    private long maintenanceIntervalSeconds;
+
+    @Autowired
+    public ContainerPoolService(DockerClient dockerClient, Environment environment,
+                                ImageRegistryService imageRegistryService,
+                                ResourceProfileService resourceProfileService) {
+        this.dockerClient = dockerClient;
+        this.environment = environment;
+        this.imageRegistryService = imageRegistryService;
+        this.resourceProfileService = resourceProfileService;
+        for (Language language : Language.values()) {
+            idle.put(language, new ConcurrentLinkedDeque<>());
+            hits.put(language, new AtomicLong());
+            misses.put(language, new AtomicLong());
+            evicted.put(language, new AtomicLong());
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            log.info("Container pool is disabled");
+            return;
+        }
+        maintenance.scheduleWithFixedDelay(this::maintain, 0, maintenanceIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        maintenance.shutdownNow();
+        for (Language language : Language.values()) {
+            PooledContainer container;
+            while ((container = idle.get(language).pollFirst()) != null) {
+                remove(container);
+            }
+        }
+    }
+
+    // Returns an idle container for the language, or empty when the pool is disabled or drained
+    public Optional<PooledContainer> acquire(Language language) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        PooledContainer container = idle.get(language).pollFirst();
+        if (container == null) {
+            misses.get(language).incrementAndGet();
+        } else {
+            hits.get(language).incrementAndGet();
+        }
+        maintenance.execute(() -> refill(language));
+        return Optional.ofNullable(container);
+    }
+
+    public List<PoolStats> getStats() {
+        List<PoolStats> stats = new ArrayList<>();
+        for (Language language : Language.values()) {
+            stats.add(new PoolStats(language.key(), language.getImageName(), targetSize(language),
+                    idle.get(language).size(), hits.get(language).get(), misses.get(language).get(),
+                    evicted.get(language).get()));
+        }
+        return stats;
+    }
+
+    private int targetSize(Language language) {
+        return environment.getProperty("execution.pool.size." + language.key(), Integer.class, defaultSize);
+    }
+
+    private void maintain() {
+        for (Language language : Language.values()) {
+            try {
+                evictIdle(language);
+                refill(language);
+            } catch (Exception e) {
+                log.error("Container pool maintenance failed for {}", language, e);
+            }
+        }
+    }
+
+    private void evictIdle(Language language) {
+        Instant cutoff = Instant.now().minus(Duration.ofSeconds(idleTimeoutSeconds));
+        Iterator<PooledContainer> iterator = idle.get(language).iterator();
+        while (iterator.hasNext()) {
+            PooledContainer container = iterator.next();
+            // Another thread may have acquired it in the meantime, in which case remove() returns false
+            if (container.getCreatedAt().isBefore(cutoff) && idle.get(language).remove(container)) {
+                log.info("Evicting idle pooled container {} for {}", container.getContainerId(), language);
+                evicted.get(language).incrementAndGet();
+                remove(container);
+            }
+        }
+    }
+
+    private void refill(Language language) {
+        if (!imageRegistryService.isAvailable(language.getImageName())) {
+            return;
+        }
+        ConcurrentLinkedDeque<PooledContainer> containers = idle.get(language);
+        int target = targetSize(language);
+        while (containers.size() < target) {
+            try {
+                containers.addLast(create(language));
+            } catch (Exception e) {
+                log.warn("Could not create pooled container for {}: {}", language, e.getMessage());
+                return;
+            }
+        }
+    }
+
+    private PooledContainer create(Language language) throws IOException {
+        Path workspace = Files.createTempDirectory("code_exec_pool_" + language.key());
+        HostConfig hostConfig = resourceProfileService.hostConfig(language, workspace);
+
+        try {
+            CreateContainerResponse container = dockerClient.createContainerCmd(language.getImageName())
+                    .withName(Constants.CONTAINER_NAMESPACE + language.key() + "-" + UUID.randomUUID())
+                    .withHostConfig(hostConfig)
+                    .withCmd("sh", Constants.CONTAINER_WORKSPACE + "/" + Constants.POOL_ENTRYPOINT)
+                    .withStdinOpen(true)
+                    .withAttachStdin(true)
+                    .withAttachStdout(true)
+                    .withAttachStderr(true)
+                    .withTty(false)
+                    .exec();
+            log.debug("Created pooled container {} for {}", container.getId(), language);
+            return new PooledContainer(container.getId(), language, workspace, Instant.now());
+        } catch (RuntimeException e) {
+            FileSystemUtils.deleteRecursively(workspace);
+            throw e;
+        }
+    }
+
+    private void remove(PooledContainer container) {
+        try {
+            dockerClient.removeContainerCmd(container.getContainerId()).withForce(true).exec();
+        } catch (Exception e) {
+            log.warn("Could not remove pooled container {}: {}", container.getContainerId(), e.getMessage());
+        }
+        try {
+            FileSystemUtils.deleteRecursively(container.getWorkspace());
+        } catch (IOException e) {
+            log.warn("Could not delete workspace {}", container.getWorkspace(), e);
+        }
+    }
+}
@@ -3,22 +3,44 @@ package com.remote.consumer.service;
 import com.github.dockerjava.api.DockerClient;
 import com.github.dockerjava.api.async.ResultCallback;
 import com.github.dockerjava.api.command.CreateContainerResponse;
-import com.github.dockerjava.api.command.PullImageResultCallback;
 import com.github.dockerjava.api.model.*;
+import com.remote.consumer.component.WebSocketHandler;
+import com.remote.consumer.config.Constants;
 import com.remote.consumer.model.CodeSubmission;
-import com.remote.consumer.event.ContainerOutputEvent;
+import com.remote.consumer.event.InputBackpressureEvent;
+import com.remote.consumer.model.ExecutionRun;
+import com.remote.consumer.model.Language;
+import com.remote.consumer.model.PooledContainer;
+import com.remote.consumer.model.ResourceProfile;
+import com.remote.consumer.relay.RelayMessage;
+import com.remote.consumer.relay.SessionRelayService;
+import com.remote.consumer.stream.OutputCapture;
+import com.remote.consumer.stream.OutputFramer;
+import com.remote.consumer.stream.SessionInputChannel;
+import com.remote.consumer.stream.SessionOutputChannel;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Base64;
+import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 
 @Service
@@ -26,85 +48,262 @@ public class DockerService {
 
     private static final Logger log = LoggerFactory.getLogger(DockerService.class);
 
+    private static final String EXIT_CODE_FILE = ".exit_code";
+    private static final long REPLAY_ATTACH_POLL_MILLIS = 100;
+
     private final DockerClient dockerClient;
     private final ApplicationEventPublisher eventPublisher;
+    private final ContainerPoolService containerPoolService;
+    private final CompileCacheService compileCacheService;
+    private final ResultCacheService resultCacheService;
+    private final JudgeService judgeService;
+    private final ImageRegistryService imageRegistryService;
+    private final ResourceProfileService resourceProfileService;
+    private final ExecutionDeadlineEnforcer deadlineEnforcer;
+    private final WebSocketHandler webSocketHandler;
+    private final SessionRelayService sessionRelayService;
+    private final ExecutionMetrics executionMetrics;
+
+    // Store container input channels for each session
+    private final ConcurrentHashMap<String, SessionInputChannel> containerInputChannels = new ConcurrentHashMap<>();
+
+    @Value("${execution.stdin.buffer-bytes:1048576}")
+    private int stdinBufferBytes;
+
+    @Value("${execution.output.flush-bytes:8192}")
+    private int outputFlushBytes;
+
+    @Value("${execution.output.flush-delay-ms:20}")
+    private long outputFlushDelayMs;
+
+    @Value("${execution.output.capture.head-bytes:65536}")
+    private int captureHeadBytes;
 
-    // Store container input streams for each session
-    private final ConcurrentHashMap<String, PipedOutputStream> containerInputStreams = new ConcurrentHashMap<>();
+    @Value("${execution.output.capture.tail-bytes:65536}")
+    private int captureTailBytes;
 
-    private String fileName;
+    @Value("${execution.output.capture.max-bytes:16777216}")
+    private long captureMaxBytes;
+
+    @Value("${execution.output.capture.spill:true}")
+    private boolean captureSpill;
+
+    @Value("${execution.result-cache.replay-linger-ms:30000}")
+    private long replayLingerMillis;
+
+    // Flushes partial output lines (e.g. input prompts) of all sessions once their delay has passed
+    private final ScheduledExecutorService outputFlushScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "OutputFlush");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     @Autowired
-    public DockerService(DockerClient dockerClient, ApplicationEventPublisher eventPublisher) {
+    public DockerService(DockerClient dockerClient, ApplicationEventPublisher eventPublisher,
+                         ContainerPoolService containerPoolService, CompileCacheService compileCacheService,
+                         ResultCacheService resultCacheService, JudgeService judgeService,
+                         ImageRegistryService imageRegistryService, ResourceProfileService resourceProfileService,
+                         ExecutionDeadlineEnforcer deadlineEnforcer, WebSocketHandler webSocketHandler,
+                         SessionRelayService sessionRelayService, ExecutionMetrics executionMetrics) {
         this.dockerClient = dockerClient;
         this.eventPublisher = eventPublisher;
+        this.containerPoolService = containerPoolService;
+        this.compileCacheService = compileCacheService;
+        this.resultCacheService = resultCacheService;
+        this.judgeService = judgeService;
+        this.imageRegistryService = imageRegistryService;
+        this.resourceProfileService = resourceProfileService;
+        this.deadlineEnforcer = deadlineEnforcer;
+        this.webSocketHandler = webSocketHandler;
+        this.sessionRelayService = sessionRelayService;
+        this.executionMetrics = executionMetrics;
     }
 
-    public byte[] executeCode(CodeSubmission codeSubmission) throws InterruptedException, IOException {
-        String containerId = createContainer(codeSubmission);
-        return runInteractiveContainer(containerId, codeSubmission.getSessionId());
+    // Input from sessions connected to other nodes for containers running here
+    @PostConstruct
+    public void registerRelay() {
+        sessionRelayService.onInput(message -> {
+            if (message.getType() == RelayMessage.Type.CLOSE_INPUT) {
+                closeLocalInput(message.getSessionId());
+            } else {
+                offerInput(message.getSessionId(), message.getData());
+            }
+        });
     }
 
-    // Method to send input to a running container
-    public void sendInputToContainer(String sessionId, String input) {
-        log.info("Attempting to send input to session {}: '{}'. Active sessions: {}",
-                sessionId, input.trim(), containerInputStreams.keySet());
+    @PreDestroy
+    public void stop() {
+        outputFlushScheduler.shutdownNow();
+    }
+
+    // The caller owns the returned run and has to close it
+    public ExecutionRun executeCode(CodeSubmission codeSubmission) throws InterruptedException, IOException {
+        long setupStart = System.nanoTime();
+        ExecutionRun run = new ExecutionRun();
+        Language language = Language.from(codeSubmission.getLanguage());
+        String source = codeSubmission.getCodeContent();
+        boolean judged = judgeService.isJudged(codeSubmission);
+
+        // A judged run's outcome depends on its test cases, not just on the source
+        String resultCacheKey = judged ? null : resultCacheService.key(language, source, codeSubmission.getSourceHash());
+        byte[] cachedOutput = resultCacheKey != null ? resultCacheService.lookup(resultCacheKey) : null;
+        if (cachedOutput != null) {
+            log.info("Result cache hit for session {}", codeSubmission.getSessionId());
+            replayCachedOutput(codeSubmission.getSessionId(), language, cachedOutput, run);
+            return run;
+        }
+
+        Optional<PooledContainer> pooled = containerPoolService.acquire(language);
 
-        PipedOutputStream inputStream = containerInputStreams.get(sessionId);
-        if (inputStream != null) {
+        Path workspace;
+        if (pooled.isPresent()) {
+            workspace = pooled.get().getWorkspace();
+        } else {
+            Timer.Sample workspaceCreation = executionMetrics.start();
+            workspace = Files.createTempDirectory("code_exec_" + codeSubmission.getSessionId());
+            workspaceCreation.stop(executionMetrics.phase(ExecutionMetrics.WORKSPACE, language));
+        }
+
+        try {
+            Files.writeString(workspace.resolve(language.getFileName()), source);
+
+            String compileCacheKey = null;
+            boolean precompiled = false;
+            if (compileCacheService.isCacheable(language)) {
+                compileCacheKey = compileCacheService.key(language, source);
+                precompiled = compileCacheService.restore(compileCacheKey, workspace);
+                log.info("Compile cache {} for session {}", precompiled ? "hit" : "miss", codeSubmission.getSessionId());
+            }
+            run.setCompileCached(precompiled);
+            String compile = precompiled ? null : compileCommand(language);
+            if (compile != null && compileCacheKey != null) {
+                compile = compileCacheService.awaitSnapshot(compile);
+            }
+            ResourceProfile profile = resourceProfileService.profileOf(language);
+            String command;
+            long caseTimeLimitMillis = 0;
+            if (judged) {
+                caseTimeLimitMillis = judgeService.caseTimeLimitMillis(codeSubmission);
+                command = recordExitCode(judgeService.prepare(workspace, codeSubmission.getTestCases(),
+                        compile, runCommand(language), caseTimeLimitMillis));
+                profile = judgeService.profileFor(profile, codeSubmission.getTestCases().size(), caseTimeLimitMillis);
+            } else {
+                command = createExecutionCommand(language, compile);
+            }
+
+            String containerId;
+            if (pooled.isPresent()) {
+                containerId = pooled.get().getContainerId();
+                Files.writeString(workspace.resolve(Constants.POOL_ENTRYPOINT), command);
+                log.info("Using pooled container {} for session {}", containerId, codeSubmission.getSessionId());
+            } else {
+                containerId = createContainer(codeSubmission, language, workspace, command);
+            }
+
+            run.setSetupMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - setupStart));
+            CompileCacheService.Snapshot snapshot = compileCacheKey != null && !precompiled
+                    ? compileCacheService.watch(language, workspace) : null;
             try {
-                if (!input.endsWith("\n")) {
-                    input += "\n";
+                runInteractiveContainer(containerId, codeSubmission.getSessionId(), language, profile, run);
+            } finally {
+                Path artifacts = snapshot != null ? snapshot.stop() : null;
+                if (artifacts != null) {
+                    compileCacheService.store(compileCacheKey, artifacts);
                 }
-                inputStream.write(input.getBytes());
-                inputStream.flush();
-                log.info("Input sent to container for session {}: {}", sessionId, input.trim());
-            } catch (IOException e) {
-                log.error("Error sending input to container for session {}", sessionId, e);
-                containerInputStreams.remove(sessionId);
             }
-        } else {
-            log.warn("No active container found for session {}. Active sessions: {}. " +
-                            "This might happen if the container finished executing or hasn't started yet.",
-                    sessionId, containerInputStreams.keySet());
+            run.setExitCode(readExitCode(workspace));
+            if (judged) {
+                run.setVerdicts(judgeService.verdicts(workspace, codeSubmission.getTestCases(), caseTimeLimitMillis));
+                judgeService.publishVerdicts(codeSubmission.getSessionId(), run.getVerdicts());
+            }
+            if (resultCacheKey != null) {
+                resultCacheService.store(resultCacheKey, run);
+            }
+            return run;
+        } finally {
+            deleteWorkspace(workspace);
         }
     }
 
-    // Method to close input stream
+    // Method to send input to a running container; never blocks, a full buffer is reported to the client instead
+    public void sendInputToContainer(String sessionId, String input) {
+        if (!containerInputChannels.containsKey(sessionId)) {
+            // The container may be running on another node
+            sessionRelayService.relayInput(sessionId, input);
+            return;
+        }
+        offerInput(sessionId, input);
+    }
+
+    // Method to close input stream, here or on the node running the container
     public void closeInputForSession(String sessionId) {
-        log.info("Attempting to close input stream for session {}. Active sessions before: {}",
-                sessionId, containerInputStreams.keySet());
+        if (!closeLocalInput(sessionId)) {
+            sessionRelayService.relayCloseInput(sessionId);
+        }
+    }
 
-        PipedOutputStream inputStream = containerInputStreams.remove(sessionId);
-        if (inputStream != null) {
-            try {
-                inputStream.close();
-                log.info("Input stream closed for session {}. Remaining active sessions: {}",
-                        sessionId, containerInputStreams.keySet());
-            } catch (IOException e) {
-                log.error("Error closing input stream for session {}", sessionId, e);
+    private void offerInput(String sessionId, String input) {
+        log.info("Attempting to send input to session {}: '{}'. Active sessions: {}",
+                sessionId, input.trim(), containerInputChannels.keySet());
+
+        SessionInputChannel inputChannel = containerInputChannels.get(sessionId);
+        if (inputChannel != null) {
+            if (!input.endsWith("\n")) {
+                input += "\n";
+            }
+            SessionInputChannel.Offer offer = inputChannel.offer(input.getBytes(StandardCharsets.UTF_8));
+            switch (offer) {
+                case ACCEPTED:
+                    log.info("Input sent to container for session {}: {}", sessionId, input.trim());
+                    break;
+                case PAUSED:
+                    log.info("Input buffer for session {} is filling up, pausing client", sessionId);
+                    eventPublisher.publishEvent(new InputBackpressureEvent(sessionId, InputBackpressureEvent.State.PAUSED));
+                    break;
+                case REJECTED:
+                    log.warn("Input buffer for session {} is full, rejected {} chars", sessionId, input.length());
+                    eventPublisher.publishEvent(new InputBackpressureEvent(sessionId, InputBackpressureEvent.State.REJECTED));
+                    break;
+                case CLOSED:
+                    log.warn("Input for session {} is already closed", sessionId);
+                    break;
             }
         } else {
-            log.info("No input stream found to close for session {}. Active sessions: {}",
-                    sessionId, containerInputStreams.keySet());
+            log.warn("No active container found for session {}. Active sessions: {}. " +
+                            "This might happen if the container finished executing or hasn't started yet.",
+                    sessionId, containerInputChannels.keySet());
         }
     }
 
-    private String createContainer(CodeSubmission codeSubmission) throws InterruptedException, IOException {
-        String imageName = getImageName(codeSubmission.getLanguage());
-        Path tempDir = mountCodeToTempDir(codeSubmission);
-        HostConfig hostConfig = HostConfig.newHostConfig()
-                .withAutoRemove(true)
-                .withBinds(new Bind(tempDir.toAbsolutePath().toString(), new Volume("/workspace")));
+    private boolean closeLocalInput(String sessionId) {
+        log.info("Attempting to close input stream for session {}. Active sessions before: {}",
+                sessionId, containerInputChannels.keySet());
+
+        SessionInputChannel inputChannel = containerInputChannels.remove(sessionId);
+        if (inputChannel != null) {
+            inputChannel.close();
+            log.info("Input stream closed for session {}. Remaining active sessions: {}",
+                    sessionId, containerInputChannels.keySet());
+            return true;
+        }
+        log.info("No input stream found to close for session {}. Active sessions: {}",
+                sessionId, containerInputChannels.keySet());
+        return false;
+    }
 
-        String[] cmd = createExecutionCommand(codeSubmission.getLanguage().toLowerCase());
+    private String createContainer(CodeSubmission codeSubmission, Language language, Path tempDir, String command)
+            throws InterruptedException {
+        String imageName = language.getImageName();
+        HostConfig hostConfig = resourceProfileService.hostConfig(language, tempDir);
 
-        boolean exists = isImageExists(imageName);
+        String[] cmd = {"sh", "-c", command};
 
-        if (!exists) {
-            pullDockerImage(imageName);
-        }
+        // Normally a map lookup: language images are pulled at startup
+        Timer.Sample imageCheck = executionMetrics.start();
+        imageRegistryService.ensureAvailable(imageName);
+        imageCheck.stop(executionMetrics.phase(ExecutionMetrics.IMAGE_CHECK, language));
 
+        Timer.Sample containerCreation = executionMetrics.start();
         CreateContainerResponse container = dockerClient.createContainerCmd(imageName)
                 .withName("exec_" + codeSubmission.getSessionId())
                 .withHostConfig(hostConfig)
@@ -115,51 +314,65 @@ public class DockerService {
                 .withAttachStderr(true)
                 .withTty(false)
                 .exec();
+        containerCreation.stop(executionMetrics.phase(ExecutionMetrics.CONTAINER_CREATE, language));
 
         return container.getId();
     }
 
-    private byte[] runInteractiveContainer(String containerId, String sessionId) throws InterruptedException {
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    // Fills in the output, exit status and run time of the run
+    private void runInteractiveContainer(String containerId, String sessionId, Language language,
+                                         ResourceProfile profile, ExecutionRun run) throws InterruptedException {
+        OutputCapture outputCapture = new OutputCapture(captureHeadBytes, captureTailBytes, captureMaxBytes, captureSpill);
+        long runStart = System.nanoTime();
         CountDownLatch containerFinished = new CountDownLatch(1);
-        StringBuilder outputBuffer = new StringBuilder();
+        SessionOutputChannel outputChannel = webSocketHandler.openOutputChannel(sessionId,
+                executionMetrics.webSocketSend(language));
+        OutputFramer outputFramer = new OutputFramer(outputFlushBytes, outputFlushDelayMs, outputFlushScheduler,
+                outputChannel::send);
+        AtomicBoolean outputSeen = new AtomicBoolean();
 
         try {
-            PipedInputStream containerInput = new PipedInputStream(8192); // Larger buffer
-            PipedOutputStream inputToContainer = new PipedOutputStream(containerInput);
+            SessionInputChannel inputChannel = new SessionInputChannel(stdinBufferBytes, () ->
+                    eventPublisher.publishEvent(new InputBackpressureEvent(sessionId, InputBackpressureEvent.State.RESUMED)));
 
-            containerInputStreams.put(sessionId, inputToContainer);
+            containerInputChannels.put(sessionId, inputChannel);
+            sessionRelayService.subscribeInput(sessionId);
             log.info("Container input stream created for session {}. Total active sessions: {}",
-                    sessionId, containerInputStreams.size());
+                    sessionId, containerInputChannels.size());
+            runStart = System.nanoTime();
+            Timer.Sample started = executionMetrics.start();
             dockerClient.startContainerCmd(containerId).exec();
+            started.stop(executionMetrics.phase(ExecutionMetrics.START, language));
+            deadlineEnforcer.track(containerId, sessionId, profile);
 
+            Timer.Sample firstOutput = executionMetrics.start();
+            Timer.Sample attached = executionMetrics.start();
             dockerClient.attachContainerCmd(containerId)
-                    .withStdIn(containerInput)
+                    .withStdIn(inputChannel.inputStream())
                     .withStdOut(true)
                     .withStdErr(true)
                     .withFollowStream(true)
                     .exec(new ResultCallback.Adapter<Frame>() {
 
+                        @Override
+                        public void onStart(Closeable stream) {
+                            super.onStart(stream);
+                            attached.stop(executionMetrics.phase(ExecutionMetrics.ATTACH, language));
+                        }
+
                         @Override
                         public void onNext(Frame frame) {
                             try {
+                                if (outputSeen.compareAndSet(false, true)) {
+                                    firstOutput.stop(executionMetrics.firstOutput(language));
+                                }
                                 byte[] payload = frame.getPayload();
-                                String message = new String(payload);
-                                StreamType streamType = frame.getStreamType();
-
-                                synchronized (outputBuffer) {
-                                    outputBuffer.append(message);
-
-                                    String bufferedContent = outputBuffer.toString();
-                                    if (bufferedContent.contains("\n") || bufferedContent.contains(":") || bufferedContent.length() > 50) {
-                                        log.info("Container output [{}]: '{}'", streamType, bufferedContent.replaceAll("\\s+", " "));
-
-                                        eventPublisher.publishEvent(new ContainerOutputEvent(sessionId, bufferedContent));
-                                        outputStream.write(bufferedContent.getBytes());
-                                        outputBuffer.setLength(0);
-                                    }
+                                log.debug("Container output [{}]: {} bytes", frame.getStreamType(), payload.length);
+                                if (outputCapture.write(payload)) {
+                                    outputFramer.append(frame.getStreamType(), payload);
+                                } else {
+                                    deadlineEnforcer.kill(containerId, "output limit of " + captureMaxBytes + " bytes exceeded");
                                 }
-
                             } catch (Exception e) {
                                 log.error("Error processing container output", e);
                             }
@@ -168,17 +381,9 @@ public class DockerService {
                         @Override
                         public void onComplete() {
                             log.info("Container execution completed for session {}", sessionId);
-                            synchronized (outputBuffer) {
-                                if (!outputBuffer.isEmpty()) {
-                                    String remainingContent = outputBuffer.toString();
-                                    log.info("Sending remaining output: '{}'", remainingContent);
-                                    eventPublisher.publishEvent(new ContainerOutputEvent(sessionId, remainingContent));
-                                    outputBuffer.setLength(0);
-                                }
-                            }
-
+                            outputFramer.finish();
                             containerFinished.countDown();
-                            closeInputForSession(sessionId);
+                            closeLocalInput(sessionId);
                         }
 
                         @Override
@@ -186,132 +391,150 @@ public class DockerService {
                             log.error("Error in container execution for session {}: {}", sessionId, throwable.getMessage());
 
                             // Send any remaining buffered output before closing
-                            synchronized (outputBuffer) {
-                                if (!outputBuffer.isEmpty()) {
-                                    String remainingContent = outputBuffer.toString();
-                                    eventPublisher.publishEvent(new ContainerOutputEvent(sessionId, remainingContent));
-                                    outputBuffer.setLength(0);
-                                }
-                            }
-
+                            outputFramer.finish();
                             containerFinished.countDown();
-                            closeInputForSession(sessionId);
+                            closeLocalInput(sessionId);
                         }
                     });
 
-            boolean completed = containerFinished.await(300, java.util.concurrent.TimeUnit.SECONDS);
+            // The enforcer normally kills the container at its deadline; this is the fallback if it could not
+            boolean completed = containerFinished.await(profile.getWallClockSeconds() + 5, TimeUnit.SECONDS);
             if (!completed) {
                 log.warn("Container execution timed out for session {}", sessionId);
+                deadlineEnforcer.kill(containerId, "wall-clock limit exceeded");
+                containerFinished.await(5, TimeUnit.SECONDS);
             }
+            run.setInputUsed(inputChannel.isUsed());
 
-        } catch (IOException e) {
-            log.error("Error setting up interactive container", e);
-            closeInputForSession(sessionId);
+        } catch (RuntimeException | InterruptedException e) {
+            outputCapture.close();
+            throw e;
         } finally {
-            closeInputForSession(sessionId);
+            closeLocalInput(sessionId);
+            String killReason = deadlineEnforcer.untrack(containerId);
+            if (killReason != null) {
+                outputChannel.send("\n[Execution terminated: " + killReason + "]\n");
+            }
+            webSocketHandler.closeOutputChannel(sessionId, outputChannel);
+            run.setTerminationReason(killReason);
+            run.setRunMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - runStart));
+            executionMetrics.runtime(language).record(System.nanoTime() - runStart, TimeUnit.NANOSECONDS);
+            // Last, so the local cleanup above does not depend on the broker
+            sessionRelayService.unsubscribeInput(sessionId);
         }
 
-        return outputStream.toByteArray();
+        run.setOutput(outputCapture);
     }
 
-    private boolean isImageExists(String imageName) {
-        return dockerClient.listImagesCmd()
-                .exec()
-                .stream()
-                .anyMatch(img -> {
-                    if (img.getRepoTags() != null) {
-                        for (String tag : img.getRepoTags()) {
-                            if (tag.equals(imageName)) {
-                                return true;
-                            }
-                        }
-                    }
-                    return false;
-                });
+    // Sends cached output the way a run would have, without touching Docker. A replay is usually done before the
+    // client's WebSocket connects, so the channel holds all of it and stays open until a WebSocket takes it
+    private void replayCachedOutput(String sessionId, Language language, byte[] output, ExecutionRun run) {
+        long replayStart = System.nanoTime();
+        OutputCapture outputCapture = new OutputCapture(captureHeadBytes, captureTailBytes, captureMaxBytes, captureSpill);
+        outputCapture.write(output);
+        SessionOutputChannel outputChannel = webSocketHandler.openOutputChannel(sessionId,
+                executionMetrics.webSocketSend(language), output.length);
+        try {
+            OutputFramer outputFramer = new OutputFramer(outputFlushBytes, outputFlushDelayMs, outputFlushScheduler,
+                    outputChannel::send);
+            outputFramer.append(StreamType.STDOUT, output);
+            outputFramer.finish();
+        } finally {
+            closeOutputChannelOnceAttached(sessionId, outputChannel,
+                    System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(replayLingerMillis));
+        }
+        run.setOutput(outputCapture);
+        run.setExitCode(0);
+        run.setResultCached(true);
+        run.setRunMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - replayStart));
     }
 
-    private void pullDockerImage(String imageName) throws InterruptedException {
-        dockerClient.pullImageCmd(imageName)
-                .exec(new PullImageResultCallback())
-                .awaitCompletion();
+    private void closeOutputChannelOnceAttached(String sessionId, SessionOutputChannel outputChannel,
+                                                long deadlineNanos) {
+        if (!outputChannel.isAttached() && System.nanoTime() < deadlineNanos) {
+            try {
+                outputFlushScheduler.schedule(() -> closeOutputChannelOnceAttached(sessionId, outputChannel,
+                        deadlineNanos), REPLAY_ATTACH_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                return;
+            } catch (RejectedExecutionException e) {
+                // Shutting down
+            }
+        }
+        if (!outputChannel.isAttached()) {
+            log.info("No WebSocket connected for session {}, dropping its replayed output", sessionId);
+        }
+        webSocketHandler.closeOutputChannel(sessionId, outputChannel);
     }
 
-    private String getImageName(String language) {
-        String imageName = null;
-        switch (language.toLowerCase()) {
-            case "python", "py":
-                imageName = "python:3.9";
-                break;
-            case "java":
-                imageName = "openjdk:17";
-                break;
-            case "javascript", "js":
-                imageName = "node:16";
-                break;
-            case "c", "cpp", "c++":
-                imageName = "gcc:latest";
-                break;
-            default:
-                break;
+    // Written by the execution command, missing if the container was killed
+    private Integer readExitCode(Path workspace) {
+        try {
+            return Integer.valueOf(Files.readString(workspace.resolve(EXIT_CODE_FILE)).trim());
+        } catch (IOException | NumberFormatException e) {
+            return null;
         }
-        if (imageName == null)
-            throw new IllegalArgumentException(String.format("%s language is not supported.", language));
-        return imageName;
     }
 
-    private Path mountCodeToTempDir(CodeSubmission codeSubmission) throws IOException {
-        String decodedCode = new String(Base64.getDecoder().decode(codeSubmission.getCodeContent().getBytes()));
+    private void deleteWorkspace(Path workspace) {
+        try {
+            FileSystemUtils.deleteRecursively(workspace);
+        } catch (IOException e) {
+            log.warn("Could not delete workspace {}", workspace, e);
+        }
+    }
 
-        Path tempDir = Files.createTempDirectory("code_exec_" + codeSubmission.getSessionId());
-        String language = codeSubmission.getLanguage().toLowerCase();
+    // compile is null for interpreted languages and for runs whose artifacts came from the compile cache
+    private String createExecutionCommand(Language language, String compile) {
+        String cmd;
+        if (compileCommand(language) == null) {
+            cmd = runCommand(language);
+        } else if (compile == null) {
+            cmd = "cd /workspace && " + runCommand(language);
+        } else {
+            cmd = "cd /workspace && " + compile + " && " + runCommand(language);
+        }
+        log.info("Created execution command for {}: {}", language, cmd);
+        return recordExitCode(cmd);
+    }
 
+    // Null for interpreted languages
+    private String compileCommand(Language language) {
+        String fileName = language.getFileName();
         switch (language) {
-            case "python", "py":
-                this.fileName = "script.py";
-                break;
-            case "java":
-                this.fileName = "Solution.java";
-                break;
-            case "javascript", "js":
-                this.fileName = "script.js";
-                break;
-            case "c":
-                this.fileName = "solution.c";
-                break;
-            case "cpp", "c++":
-                this.fileName = "solution.cpp";
-                break;
+            case PYTHON:
+            case JAVASCRIPT:
+                return null;
+            case JAVA:
+                return "javac " + fileName;
+            case C:
+                return "gcc -o solution " + fileName;
+            case CPP:
+                return "g++ -o solution " + fileName;
             default:
                 throw new IllegalArgumentException(String.format("%s language is not supported.", language));
         }
-
-        Path codeFile = tempDir.resolve(fileName);
-        Files.writeString(codeFile, decodedCode);
-        return tempDir;
     }
 
-    private String[] createExecutionCommand(String language) {
-        String[] cmd;
+    // Run from /workspace, after the compile command
+    private String runCommand(Language language) {
+        String fileName = language.getFileName();
         switch (language) {
-            case "python", "py":
-                cmd = new String[]{"python", "/workspace/" + fileName};
-                break;
-            case "java":
-                cmd = new String[]{"sh", "-c", "cd /workspace && javac " + fileName + " && java Solution"};
-                break;
-            case "javascript", "js":
-                cmd = new String[]{"node", "/workspace/" + fileName};
-                break;
-            case "c":
-                cmd = new String[]{"sh", "-c", "cd /workspace && gcc -o solution " + fileName + " && ./solution"};
-                break;
-            case "cpp", "c++":
-                cmd = new String[]{"sh", "-c", "cd /workspace && g++ -o solution " + fileName + " && ./solution"};
-                break;
+            case PYTHON:
+                return "python /workspace/" + fileName;
+            case JAVA:
+                return "java Solution";
+            case JAVASCRIPT:
+                return "node /workspace/" + fileName;
+            case C:
+            case CPP:
+                return "./solution";
             default:
                 throw new IllegalArgumentException(String.format("%s language is not supported.", language));
         }
-        log.info("Created execution command for {}: {}", language, String.join(" ", cmd));
-        return cmd;
     }
-}
\ No newline at end of file
+
+    // Docker's exit status is gone once an auto-removed container exits, so the shell records it in the workspace
+    private String recordExitCode(String cmd) {
+        return "(" + cmd + "); echo $? > " + Constants.CONTAINER_WORKSPACE + "/" + EXIT_CODE_FILE;
+    }
+}
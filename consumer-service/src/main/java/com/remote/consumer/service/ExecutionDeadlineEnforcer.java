@@ -0,0 +1,149 @@
+package com.remote.consumer.service;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.async.ResultCallback;
+import com.github.dockerjava.api.model.Statistics;
+import com.remote.consumer.model.ResourceProfile;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Kills running containers once they pass their wall-clock deadline or use more CPU time than their profile
+ * allows. Killing the container ends the attach stream, so the execution returns and its scheduler slot is
+ * released immediately.
+ */
+@Service
+public class ExecutionDeadlineEnforcer {
+
+    private static final Logger log = LoggerFactory.getLogger(ExecutionDeadlineEnforcer.class);
+
+    private final DockerClient dockerClient;
+
+    private final Map<String, TrackedExecution> running = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "DeadlineEnforcer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${execution.enforcer.interval-ms:1000}")
+    private long intervalMs;
+
+    @Autowired
+    public ExecutionDeadlineEnforcer(DockerClient dockerClient) {
+        this.dockerClient = dockerClient;
+    }
+
+    @PostConstruct
+    public void start() {
+        ticker.scheduleWithFixedDelay(this::check, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        ticker.shutdownNow();
+    }
+
+    // Call right after the container has been started
+    public void track(String containerId, String sessionId, ResourceProfile profile) {
+        long now = System.nanoTime();
+        running.put(containerId, new TrackedExecution(containerId, sessionId,
+                now + TimeUnit.SECONDS.toNanos(profile.getWallClockSeconds()),
+                TimeUnit.SECONDS.toNanos(profile.getCpuTimeSeconds())));
+    }
+
+    // Stops tracking and returns why the container was killed, or null if it was not
+    public String untrack(String containerId) {
+        TrackedExecution execution = running.remove(containerId);
+        return execution != null ? execution.killReason : null;
+    }
+
+    public void kill(String containerId, String reason) {
+        TrackedExecution execution = running.get(containerId);
+        if (execution == null || execution.killReason != null) {
+            return;
+        }
+        execution.killReason = reason;
+        log.warn("Killing container {} for session {}: {}", containerId, execution.sessionId, reason);
+        try {
+            dockerClient.killContainerCmd(containerId).exec();
+        } catch (Exception e) {
+            // Most likely the container exited on its own in the meantime
+            log.debug("Could not kill container {}: {}", containerId, e.getMessage());
+        }
+    }
+
+    private void check() {
+        long now = System.nanoTime();
+        for (TrackedExecution execution : running.values()) {
+            if (execution.killReason != null) {
+                continue;
+            }
+            if (now - execution.wallClockDeadline > 0) {
+                kill(execution.containerId, "wall-clock limit exceeded");
+            } else if (!execution.statsPending) {
+                pollCpuTime(execution);
+            }
+        }
+    }
+
+    // Asynchronous so that a slow stats call never delays the wall-clock checks of other containers
+    private void pollCpuTime(TrackedExecution execution) {
+        execution.statsPending = true;
+        try {
+            dockerClient.statsCmd(execution.containerId)
+                    .withNoStream(true)
+                    .exec(new ResultCallback.Adapter<Statistics>() {
+                        @Override
+                        public void onNext(Statistics statistics) {
+                            if (statistics.getCpuStats() != null && statistics.getCpuStats().getCpuUsage() != null) {
+                                Long usage = statistics.getCpuStats().getCpuUsage().getTotalUsage();
+                                if (usage != null && usage > execution.cpuTimeLimitNanos) {
+                                    kill(execution.containerId, "CPU time limit exceeded");
+                                }
+                            }
+                        }
+
+                        @Override
+                        public void onComplete() {
+                            execution.statsPending = false;
+                        }
+
+                        @Override
+                        public void onError(Throwable throwable) {
+                            execution.statsPending = false;
+                        }
+                    });
+        } catch (Exception e) {
+            execution.statsPending = false;
+            log.debug("Could not read stats of container {}: {}", execution.containerId, e.getMessage());
+        }
+    }
+
+    private static class TrackedExecution {
+        private final String containerId;
+        private final String sessionId;
+        private final long wallClockDeadline;
+        private final long cpuTimeLimitNanos;
+        private volatile boolean statsPending;
+        private volatile String killReason;
+
+        private TrackedExecution(String containerId, String sessionId, long wallClockDeadline, long cpuTimeLimitNanos) {
+            this.containerId = containerId;
+            this.sessionId = sessionId;
+            this.wallClockDeadline = wallClockDeadline;
+            this.cpuTimeLimitNanos = cpuTimeLimitNanos;
+        }
+    }
+}
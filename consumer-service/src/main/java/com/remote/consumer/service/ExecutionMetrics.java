@@ -0,0 +1,68 @@
+package com.remote.consumer.service;
+
+import com.remote.consumer.model.CodeSubmission;
+import com.remote.consumer.model.Language;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timers for where an execution's time goes, all tagged by language:
+ * <ul>
+ *     <li>{@code execution.queue.wait}: from the submission service publishing it until it starts executing</li>
+ *     <li>{@code execution.phase}: one setup phase, tagged {@code phase} (image_check, workspace,
+ *     container_create, start, attach)</li>
+ *     <li>{@code execution.first.output}: from starting the container until its first output frame</li>
+ *     <li>{@code execution.runtime}: from starting the container until it is done</li>
+ *     <li>{@code execution.websocket.send}: from queuing an output frame for the WebSocket until it is sent</li>
+ * </ul>
+ */
+@Service
+public class ExecutionMetrics {
+
+    public static final String IMAGE_CHECK = "image_check";
+    public static final String WORKSPACE = "workspace";
+    public static final String CONTAINER_CREATE = "container_create";
+    public static final String START = "start";
+    public static final String ATTACH = "attach";
+
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public ExecutionMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(meterRegistry);
+    }
+
+    public Timer phase(String phase, Language language) {
+        return meterRegistry.timer("execution.phase", "phase", phase, "language", language.key());
+    }
+
+    public Timer firstOutput(Language language) {
+        return meterRegistry.timer("execution.first.output", "language", language.key());
+    }
+
+    public Timer runtime(Language language) {
+        return meterRegistry.timer("execution.runtime", "language", language.key());
+    }
+
+    public Timer webSocketSend(Language language) {
+        return meterRegistry.timer("execution.websocket.send", "language", language.key());
+    }
+
+    // The publish time comes from another host's clock, so skew can make the wait come out negative
+    public void recordQueueWait(CodeSubmission codeSubmission, Language language) {
+        if (codeSubmission.getPublishedAt() == null) {
+            return;
+        }
+        long waitMillis = Math.max(0, System.currentTimeMillis() - codeSubmission.getPublishedAt());
+        meterRegistry.timer("execution.queue.wait", "language", language.key())
+                .record(waitMillis, TimeUnit.MILLISECONDS);
+    }
+}
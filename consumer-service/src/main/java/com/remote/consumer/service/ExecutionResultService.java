@@ -0,0 +1,161 @@
+package com.remote.consumer.service;
+
+import com.remote.consumer.config.Constants;
+import com.remote.consumer.model.CodeSubmission;
+import com.remote.consumer.model.ExecutionResult;
+import com.remote.consumer.model.ExecutionRun;
+import com.remote.consumer.stream.OutputCapture;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the outcome of every execution: the full output is written to the output directory and a result with
+ * the exit code, phase timings and the URL under which this node serves that output is published to the
+ * submission service. Stored output is deleted once it is older than the retention period.
+ */
+@Service
+public class ExecutionResultService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExecutionResultService.class);
+
+    private final RabbitTemplate rabbitTemplate;
+
+    private final ScheduledExecutorService janitor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "ExecutionOutputJanitor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${execution.results.enabled:true}")
+    private boolean enabled;
+
+    @Value("${execution.results.output-dir:${java.io.tmpdir}/code_exec_output}")
+    private Path outputDir;
+
+    @Value("${execution.results.output-retention-hours:24}")
+    private long retentionHours;
+
+    // Where other services reach this node's OutputController
+    @Value("${execution.results.node-url:http://localhost:${server.port:8080}}")
+    private String nodeUrl;
+
+    @Value("${execution.results.node-id:${spring.application.name}:${server.port:8080}}")
+    private String nodeId;
+
+    @Autowired
+    public ExecutionResultService(RabbitTemplate rabbitTemplate) {
+        this.rabbitTemplate = rabbitTemplate;
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Files.createDirectories(outputDir);
+        janitor.scheduleWithFixedDelay(this::deleteExpiredOutput, 1, 1, TimeUnit.HOURS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        janitor.shutdownNow();
+    }
+
+    public void record(CodeSubmission codeSubmission, ExecutionRun run, long queuedMillis, long totalMillis) {
+        String submissionId = submissionId(codeSubmission);
+        if (submissionId == null) {
+            return;
+        }
+        String status = run.getTerminationReason() != null ? "KILLED"
+                : run.getExitCode() != null ? "COMPLETED" : "FAILED";
+        OutputCapture output = run.getOutput();
+        publish(new ExecutionResult(submissionId, codeSubmission.getSessionId(), status, run.getExitCode(),
+                run.getTerminationReason(), run.isCompileCached(), run.isResultCached(), queuedMillis,
+                run.getSetupMillis(), run.getRunMillis(), totalMillis, output.getTotalBytes(), output.isTruncated(),
+                storeOutput(submissionId, output), nodeId, Instant.now(), run.getVerdicts()));
+    }
+
+    // The execution could not be run at all
+    public void recordFailure(CodeSubmission codeSubmission, String reason, long queuedMillis, long totalMillis) {
+        String submissionId = submissionId(codeSubmission);
+        if (submissionId == null) {
+            return;
+        }
+        publish(new ExecutionResult(submissionId, codeSubmission.getSessionId(), "FAILED", null, reason, false, false,
+                queuedMillis, 0, 0, totalMillis, 0, false, null, null, Instant.now(), null));
+    }
+
+    // Output this node stored for the submission, empty once it has expired or if it ran elsewhere
+    public Optional<Path> storedOutput(String submissionId) {
+        try {
+            Path file = outputDir.resolve(UUID.fromString(submissionId) + ".out");
+            return Files.isRegularFile(file) ? Optional.of(file) : Optional.empty();
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    // Also keeps ids from becoming file names unchecked
+    private String submissionId(CodeSubmission codeSubmission) {
+        if (!enabled || codeSubmission.getId() == null) {
+            return null;
+        }
+        try {
+            return UUID.fromString(codeSubmission.getId()).toString();
+        } catch (IllegalArgumentException e) {
+            log.warn("Not recording the result of submission {}, its id is not a UUID", codeSubmission.getId());
+            return null;
+        }
+    }
+
+    private String storeOutput(String submissionId, OutputCapture output) {
+        Path file = outputDir.resolve(submissionId + ".out");
+        try (OutputStream out = Files.newOutputStream(file)) {
+            output.writeTo(out);
+            return nodeUrl + "/outputs/" + submissionId;
+        } catch (IOException e) {
+            log.warn("Could not store the output of submission {}: {}", submissionId, e.getMessage());
+            return null;
+        }
+    }
+
+    private void publish(ExecutionResult result) {
+        try {
+            rabbitTemplate.convertAndSend(Constants.EXECUTION_RESULT_QUEUE, result);
+        } catch (AmqpException e) {
+            log.error("Could not publish the result of submission {}", result.getSubmissionId(), e);
+        }
+    }
+
+    private void deleteExpiredOutput() {
+        Instant cutoff = Instant.now().minusSeconds(TimeUnit.HOURS.toSeconds(retentionHours));
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(outputDir, "*.out")) {
+            for (Path file : files) {
+                if (Files.getLastModifiedTime(file).toInstant().isBefore(cutoff)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not delete expired execution output", e);
+        }
+    }
+}
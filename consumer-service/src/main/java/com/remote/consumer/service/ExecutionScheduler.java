@@ -0,0 +1,120 @@
+package com.remote.consumer.service;
+
+import com.remote.consumer.model.ExecutionCost;
+import com.remote.consumer.model.Language;
+import com.remote.consumer.model.ResourceProfile;
+import com.remote.consumer.model.SchedulerStats;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admits executions against a per-node CPU and memory budget. An execution costs the CPU and memory of its
+ * language's resource profile; {@link #acquire} blocks until the cost fits into what is left of the budget.
+ * <p>
+ * A single execution is always admitted on an idle node, so a cost larger than the whole budget cannot
+ * stall the queue.
+ */
+@Service
+public class ExecutionScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(ExecutionScheduler.class);
+
+    private final ResourceProfileService resourceProfileService;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition capacityFreed = lock.newCondition();
+
+    private double admittedCpus;
+    private long admittedMemoryMb;
+    private int running;
+    private int waiting;
+
+    @Value("${execution.node.cpus:0}")
+    private double nodeCpus;
+
+    @Value("${execution.node.memory-mb:0}")
+    private long nodeMemoryMb;
+
+    @Autowired
+    public ExecutionScheduler(ResourceProfileService resourceProfileService) {
+        this.resourceProfileService = resourceProfileService;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (nodeCpus <= 0) {
+            nodeCpus = Runtime.getRuntime().availableProcessors();
+        }
+        if (nodeMemoryMb <= 0) {
+            // Leave half of the host for the JVM, Docker and the OS
+            com.sun.management.OperatingSystemMXBean os =
+                    (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+            nodeMemoryMb = os.getTotalMemorySize() / 2 / (1024 * 1024);
+        }
+        log.info("Execution budget: {} cpus, {} MB", nodeCpus, nodeMemoryMb);
+    }
+
+    // An execution costs exactly what its container is limited to
+    public ExecutionCost costOf(Language language) {
+        ResourceProfile profile = resourceProfileService.profileOf(language);
+        return new ExecutionCost(profile.getCpus(), profile.getMemoryMb());
+    }
+
+    // Blocks until the cost fits into the remaining budget and reserves it; pair with release()
+    public void acquire(ExecutionCost cost) throws InterruptedException {
+        lock.lock();
+        try {
+            waiting++;
+            try {
+                while (!fits(cost)) {
+                    capacityFreed.await();
+                }
+            } finally {
+                waiting--;
+            }
+            admittedCpus += cost.getCpus();
+            admittedMemoryMb += cost.getMemoryMb();
+            running++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release(ExecutionCost cost) {
+        lock.lock();
+        try {
+            admittedCpus -= cost.getCpus();
+            admittedMemoryMb -= cost.getMemoryMb();
+            running--;
+            capacityFreed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public SchedulerStats getStats() {
+        lock.lock();
+        try {
+            return new SchedulerStats(nodeCpus, nodeMemoryMb, admittedCpus, admittedMemoryMb, running, waiting);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean fits(ExecutionCost cost) {
+        if (running == 0) {
+            return true;
+        }
+        // Small epsilon so that fractional costs adding up to exactly the budget are admitted
+        return admittedCpus + cost.getCpus() <= nodeCpus + 1e-9
+                && admittedMemoryMb + cost.getMemoryMb() <= nodeMemoryMb;
+    }
+}
@@ -0,0 +1,202 @@
+package com.remote.consumer.service;
+
+import com.rabbitmq.client.Channel;
+import com.remote.consumer.model.CodeSubmission;
+import com.remote.consumer.model.ExecutionCost;
+import com.remote.consumer.model.ExecutionRun;
+import com.remote.consumer.model.Language;
+import com.remote.consumer.stream.OutputCapture;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sits between the RabbitMQ listener and {@link DockerService#executeCode}: submissions are buffered per user
+ * in a {@link FairShareQueue} and dispatched by deficit round-robin, weighted by the language's CPU cost, as
+ * soon as {@link ExecutionScheduler} has room for them.
+ * <p>
+ * A submission is acked only once it has been handed to the execution executor. Until then it is unacked, so
+ * the broker redelivers whatever this node had buffered if it stops or dies, and the listener's prefetch, equal
+ * to the buffer size, bounds how many that can be.
+ */
+@Service
+public class FairShareDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(FairShareDispatcher.class);
+
+    private final DockerService dockerService;
+    private final ExecutionScheduler executionScheduler;
+    private final TaskExecutor executionExecutor;
+    private final ExecutionResultService executionResultService;
+    private final ExecutionMetrics executionMetrics;
+
+    private FairShareQueue<QueuedSubmission> queue;
+    private Thread dispatcher;
+
+    @Value("${execution.fair-share.buffer:32}")
+    private int buffer;
+
+    @Value("${execution.fair-share.quantum:1.0}")
+    private double quantum;
+
+    @Value("${execution.fair-share.per-user-limit:2}")
+    private int perUserLimit;
+
+    @Autowired
+    public FairShareDispatcher(DockerService dockerService, ExecutionScheduler executionScheduler,
+                               @Qualifier("executionExecutor") TaskExecutor executionExecutor,
+                               ExecutionResultService executionResultService, ExecutionMetrics executionMetrics) {
+        this.dockerService = dockerService;
+        this.executionScheduler = executionScheduler;
+        this.executionExecutor = executionExecutor;
+        this.executionResultService = executionResultService;
+        this.executionMetrics = executionMetrics;
+    }
+
+    @PostConstruct
+    public void start() {
+        queue = new FairShareQueue<>(buffer, quantum, perUserLimit);
+        dispatcher = new Thread(this::dispatchLoop, "FairShareDispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    // Hands what is still buffered back to the broker rather than waiting for the channel to close
+    @PreDestroy
+    public void stop() {
+        dispatcher.interrupt();
+        for (QueuedSubmission queued : queue.drain()) {
+            requeue(queued);
+        }
+    }
+
+    // Never blocks for long: the prefetch keeps no more unacked submissions on this node than the buffer holds
+    public void submit(CodeSubmission codeSubmission, Channel channel, long deliveryTag) throws InterruptedException {
+        QueuedSubmission queued = new QueuedSubmission(codeSubmission, System.nanoTime(), channel, deliveryTag);
+        ExecutionCost cost;
+        try {
+            cost = executionScheduler.costOf(Language.from(codeSubmission.getLanguage()));
+        } catch (IllegalArgumentException e) {
+            log.warn("Dropping submission for session {}: {}", codeSubmission.getSessionId(), e.getMessage());
+            reject(queued);
+            return;
+        }
+        queue.put(userKey(codeSubmission), queued, cost.getCpus());
+    }
+
+    public int queued() {
+        return queue.size();
+    }
+
+    // Shares are per authenticated user, so opening more sessions does not earn more of them. Anonymous
+    // submissions are treated as belonging to their own session
+    static String userKey(CodeSubmission codeSubmission) {
+        if (codeSubmission.getUserName() != null && !codeSubmission.getUserName().isEmpty()) {
+            return "user-" + codeSubmission.getUserName();
+        }
+        return codeSubmission.getUserId() != 0
+                ? "user-id-" + codeSubmission.getUserId()
+                : "session-" + codeSubmission.getSessionId();
+    }
+
+    private void dispatchLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                dispatch(queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void dispatch(FairShareQueue.Dispatch<QueuedSubmission> next) throws InterruptedException {
+        QueuedSubmission queued = next.item();
+        CodeSubmission codeSubmission = queued.codeSubmission();
+        ExecutionCost cost = executionScheduler.costOf(Language.from(codeSubmission.getLanguage()));
+        try {
+            executionScheduler.acquire(cost);
+        } catch (InterruptedException e) {
+            requeue(queued);
+            queue.complete(next.user());
+            throw e;
+        }
+        try {
+            executionExecutor.execute(() -> execute(next.user(), queued, cost));
+        } catch (RuntimeException e) {
+            log.error("Could not start execution for session {}", codeSubmission.getSessionId(), e);
+            executionScheduler.release(cost);
+            queue.complete(next.user());
+            requeue(queued);
+            return;
+        }
+        ack(queued);
+    }
+
+    private void execute(String user, QueuedSubmission queued, ExecutionCost cost) {
+        CodeSubmission codeSubmission = queued.codeSubmission();
+        long queuedMillis = millisSince(queued.receivedAt());
+        executionMetrics.recordQueueWait(codeSubmission, Language.from(codeSubmission.getLanguage()));
+        try (ExecutionRun run = dockerService.executeCode(codeSubmission)) {
+            OutputCapture output = run.getOutput();
+            log.info("Execution for session {} exited with {} and produced {} bytes of output{}",
+                    codeSubmission.getSessionId(), run.getExitCode(), output.getTotalBytes(),
+                    output.isTruncated() ? " (truncated)" : "");
+            executionResultService.record(codeSubmission, run, queuedMillis, millisSince(queued.receivedAt()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("Execution failed for session {}", codeSubmission.getSessionId(), e);
+            executionResultService.recordFailure(codeSubmission, e.getMessage(), queuedMillis,
+                    millisSince(queued.receivedAt()));
+        } finally {
+            executionScheduler.release(cost);
+            queue.complete(user);
+        }
+    }
+
+    // A failed ack means the channel is gone, and the broker will deliver the submission again
+    private void ack(QueuedSubmission queued) {
+        try {
+            queued.channel().basicAck(queued.deliveryTag(), false);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not ack submission for session {}, it may run twice: {}",
+                    queued.codeSubmission().getSessionId(), e.getMessage());
+        }
+    }
+
+    private void requeue(QueuedSubmission queued) {
+        try {
+            queued.channel().basicNack(queued.deliveryTag(), false, true);
+        } catch (IOException | RuntimeException e) {
+            log.debug("Could not requeue submission for session {}, the broker does once the channel closes: {}",
+                    queued.codeSubmission().getSessionId(), e.getMessage());
+        }
+    }
+
+    private void reject(QueuedSubmission queued) {
+        try {
+            queued.channel().basicReject(queued.deliveryTag(), false);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not reject submission for session {}: {}", queued.codeSubmission().getSessionId(),
+                    e.getMessage());
+        }
+    }
+
+    private static long millisSince(long nanoTime) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - nanoTime);
+    }
+
+    // Remembers when the submission arrived, for the queue time in its result, and the delivery to ack
+    private record QueuedSubmission(CodeSubmission codeSubmission, long receivedAt, Channel channel,
+                                    long deliveryTag) {
+    }
+}
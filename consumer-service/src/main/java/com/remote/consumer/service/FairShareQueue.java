@@ -0,0 +1,178 @@
+package com.remote.consumer.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded multi-user queue served by deficit round-robin. Every user with pending items takes turns; on each
+ * turn a user earns {@code quantum} credit and may dequeue items while the credit covers their cost. A user
+ * that already has {@code perUserLimit} items running is skipped until {@link #complete} is called.
+ */
+public class FairShareQueue<T> {
+
+    private final int capacity;
+    private final double quantum;
+    private final int perUserLimit;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final Condition changed = lock.newCondition();
+
+    private final Map<String, UserQueue<T>> users = new HashMap<>();
+    // Users with queued items, in round-robin order; the head is the user whose turn it is
+    private final ArrayDeque<UserQueue<T>> active = new ArrayDeque<>();
+    private int size;
+
+    public FairShareQueue(int capacity, double quantum, int perUserLimit) {
+        if (capacity <= 0 || quantum <= 0 || perUserLimit <= 0) {
+            throw new IllegalArgumentException("capacity, quantum and perUserLimit must be positive");
+        }
+        this.capacity = capacity;
+        this.quantum = quantum;
+        this.perUserLimit = perUserLimit;
+    }
+
+    // Blocks while the queue is full
+    public void put(String user, T item, double cost) throws InterruptedException {
+        lock.lock();
+        try {
+            while (size >= capacity) {
+                notFull.await();
+            }
+            UserQueue<T> queue = users.computeIfAbsent(user, UserQueue::new);
+            queue.items.addLast(new Entry<>(item, cost));
+            if (!queue.active) {
+                queue.active = true;
+                active.addLast(queue);
+            }
+            size++;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Blocks until some user below their concurrency limit has a queued item
+    public Dispatch<T> take() throws InterruptedException {
+        lock.lock();
+        try {
+            while (true) {
+                if (hasEligibleUser()) {
+                    while (true) {
+                        UserQueue<T> queue = active.peekFirst();
+                        if (queue.running < perUserLimit) {
+                            Entry<T> head = queue.items.peekFirst();
+                            if (queue.deficit >= head.cost) {
+                                return dequeue(queue);
+                            }
+                            queue.deficit += quantum;
+                        }
+                        active.addLast(active.pollFirst());
+                    }
+                }
+                changed.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Marks one of the user's dispatched items as finished
+    public void complete(String user) {
+        lock.lock();
+        try {
+            UserQueue<T> queue = users.get(user);
+            if (queue == null) {
+                return;
+            }
+            queue.running--;
+            if (queue.running <= 0 && queue.items.isEmpty()) {
+                users.remove(user);
+            }
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Removes and returns every queued item; users' running counts are kept for their complete() calls
+    public List<T> drain() {
+        lock.lock();
+        try {
+            List<T> drained = new ArrayList<>(size);
+            for (UserQueue<T> queue : active) {
+                for (Entry<T> entry : queue.items) {
+                    drained.add(entry.item);
+                }
+                queue.items.clear();
+                queue.active = false;
+                queue.deficit = 0;
+                if (queue.running <= 0) {
+                    users.remove(queue.user);
+                }
+            }
+            active.clear();
+            size = 0;
+            notFull.signalAll();
+            return drained;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean hasEligibleUser() {
+        for (UserQueue<T> queue : active) {
+            if (queue.running < perUserLimit) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Dispatch<T> dequeue(UserQueue<T> queue) {
+        Entry<T> entry = queue.items.pollFirst();
+        queue.deficit -= entry.cost;
+        queue.running++;
+        if (queue.items.isEmpty()) {
+            // An idle user does not bank credit
+            active.pollFirst();
+            queue.active = false;
+            queue.deficit = 0;
+        }
+        size--;
+        notFull.signal();
+        return new Dispatch<>(queue.user, entry.item);
+    }
+
+    public record Dispatch<T>(String user, T item) {
+    }
+
+    private record Entry<T>(T item, double cost) {
+    }
+
+    private static class UserQueue<T> {
+        private final String user;
+        private final ArrayDeque<Entry<T>> items = new ArrayDeque<>();
+        private double deficit;
+        private int running;
+        private boolean active;
+
+        private UserQueue(String user) {
+            this.user = user;
+        }
+    }
+}
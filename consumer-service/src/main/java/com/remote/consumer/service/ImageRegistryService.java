@@ -0,0 +1,199 @@
+package com.remote.consumer.service;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.async.ResultCallback;
+import com.github.dockerjava.api.command.PullImageResultCallback;
+import com.github.dockerjava.api.model.Event;
+import com.github.dockerjava.api.model.EventType;
+import com.github.dockerjava.api.model.Image;
+import com.remote.consumer.model.Language;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory view of the images present on the Docker host, so the per-submission check is a map lookup.
+ * The view is loaded at startup, reloaded whenever Docker reports an image event, and all language images
+ * are pulled during context initialization, i.e. before the RabbitMQ listeners start consuming.
+ */
+@Service
+public class ImageRegistryService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageRegistryService.class);
+
+    private final DockerClient dockerClient;
+
+    // repo tag -> image id
+    private final Map<String, String> images = new ConcurrentHashMap<>();
+    private final Map<String, ReentrantLock> pullLocks = new ConcurrentHashMap<>();
+    private final AtomicBoolean refreshPending = new AtomicBoolean();
+
+    private final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "ImageRegistry");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile Closeable eventSubscription;
+
+    @Value("${execution.images.prepull:true}")
+    private boolean prepull;
+
+    @Value("${execution.images.event-retry-seconds:10}")
+    private long eventRetrySeconds;
+
+    @Autowired
+    public ImageRegistryService(DockerClient dockerClient) {
+        this.dockerClient = dockerClient;
+    }
+
+    // Each step fails on its own: images are still pulled on demand if Docker was not reachable at startup
+    @PostConstruct
+    public void init() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            log.error("Could not load the image registry", e);
+        }
+        try {
+            subscribeToEvents();
+        } catch (Exception e) {
+            log.error("Could not subscribe to Docker image events, retrying in {}s", eventRetrySeconds, e);
+            resubscribe();
+        }
+        if (prepull) {
+            for (Language language : Language.values()) {
+                try {
+                    ensureAvailable(language.getImageName());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (Exception e) {
+                    log.error("Could not pull image {}", language.getImageName(), e);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        refresher.shutdownNow();
+        Closeable subscription = eventSubscription;
+        if (subscription != null) {
+            subscription.close();
+        }
+    }
+
+    public boolean isAvailable(String imageName) {
+        return images.containsKey(imageName);
+    }
+
+    public String getImageId(String imageName) {
+        return images.get(imageName);
+    }
+
+    // Pulls the image unless it is known to be present; concurrent callers for the same image share one pull
+    public void ensureAvailable(String imageName) throws InterruptedException {
+        if (isAvailable(imageName)) {
+            return;
+        }
+        // Not synchronized: a pull can take minutes and must not pin a virtual thread's carrier
+        ReentrantLock pullLock = pullLocks.computeIfAbsent(imageName, name -> new ReentrantLock());
+        pullLock.lockInterruptibly();
+        try {
+            if (isAvailable(imageName)) {
+                return;
+            }
+            log.info("Pulling image {}", imageName);
+            dockerClient.pullImageCmd(imageName)
+                    .exec(new PullImageResultCallback())
+                    .awaitCompletion();
+            images.put(imageName, dockerClient.inspectImageCmd(imageName).exec().getId());
+            log.info("Image {} is available", imageName);
+        } finally {
+            pullLock.unlock();
+        }
+    }
+
+    private void refresh() {
+        Map<String, String> current = new HashMap<>();
+        for (Image image : dockerClient.listImagesCmd().exec()) {
+            if (image.getRepoTags() != null) {
+                for (String tag : image.getRepoTags()) {
+                    current.put(tag, image.getId());
+                }
+            }
+        }
+        images.putAll(current);
+        images.keySet().retainAll(current.keySet());
+        log.info("Image registry refreshed: {} tags", current.size());
+    }
+
+    // Collapses bursts of events (a pull emits one per layer) into a single reload
+    private void scheduleRefresh() {
+        if (refreshPending.compareAndSet(false, true)) {
+            refresher.schedule(() -> {
+                refreshPending.set(false);
+                try {
+                    refresh();
+                } catch (Exception e) {
+                    log.warn("Image registry refresh failed: {}", e.getMessage());
+                }
+            }, 500, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void subscribeToEvents() {
+        eventSubscription = dockerClient.eventsCmd()
+                .withEventTypeFilter(EventType.IMAGE)
+                .exec(new ResultCallback.Adapter<Event>() {
+                    @Override
+                    public void onNext(Event event) {
+                        log.debug("Image event {} for {}", event.getAction(), event.getId());
+                        scheduleRefresh();
+                    }
+
+                    @Override
+                    public void onError(Throwable throwable) {
+                        log.warn("Docker event stream failed, resubscribing in {}s: {}", eventRetrySeconds,
+                                throwable.getMessage());
+                        resubscribe();
+                    }
+
+                    @Override
+                    public void onComplete() {
+                        resubscribe();
+                    }
+                });
+    }
+
+    private void resubscribe() {
+        if (refresher.isShutdown()) {
+            return;
+        }
+        refresher.schedule(() -> {
+            try {
+                refresh();
+                subscribeToEvents();
+            } catch (Exception e) {
+                log.warn("Could not resubscribe to Docker events: {}", e.getMessage());
+                resubscribe();
+            }
+        }, eventRetrySeconds, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,201 @@
+package com.remote.consumer.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.remote.consumer.component.WebSocketHandler;
+import com.remote.consumer.config.Constants;
+import com.remote.consumer.model.CaseVerdict;
+import com.remote.consumer.model.CodeSubmission;
+import com.remote.consumer.model.ResourceProfile;
+import com.remote.consumer.model.TestCase;
+import com.remote.consumer.stream.OutputComparator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Judge mode: all test cases of a submission run in one container. A generated command compiles the source once
+ * and then runs the program once per case, with the case's input file as stdin and its own time and output limit,
+ * leaving output, exit status and run time of every case in the workspace. The expected outputs never enter the
+ * container; they are compared with the output files here once the container is done.
+ * <p>
+ * The harness runs as root and each case as an unprivileged uid that can neither read the cases directory, where
+ * the inputs and results are kept, nor signal the harness. Everything the case uid still runs after a case ends
+ * is killed before the case's result is recorded, so a process escaping {@code timeout} with setsid or a double
+ * fork can neither outlive its time limit nor rewrite the results of any case.
+ */
+@Service
+public class JudgeService {
+
+    private static final Logger log = LoggerFactory.getLogger(JudgeService.class);
+
+    static final String CASES_DIR = "cases";
+    static final String COMPILE_FAILED_FILE = "compile.failed";
+
+    // Status of coreutils timeout when the case ran out of time
+    static final int EXIT_TIMEOUT = 124;
+    // 128 + SIGKILL, a case that ignored the timeout's SIGTERM, or was killed for another reason such as memory
+    static final int EXIT_KILLED = 137;
+    // 128 + SIGXFSZ, the case wrote more than its output limit
+    static final int EXIT_OUTPUT_LIMIT = 153;
+
+    private final WebSocketHandler webSocketHandler;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Value("${execution.judge.case-time-limit-ms:2000}")
+    private long defaultCaseTimeLimitMillis;
+
+    @Value("${execution.judge.max-case-time-limit-ms:10000}")
+    private long maxCaseTimeLimitMillis;
+
+    @Value("${execution.judge.case-output-limit-bytes:1048576}")
+    private long caseOutputLimitBytes;
+
+    // Must not be used by anything else in the container: every process it owns is killed between cases
+    @Value("${execution.judge.case-uid:65534}")
+    private int caseUid;
+
+    @Autowired
+    public JudgeService(WebSocketHandler webSocketHandler) {
+        this.webSocketHandler = webSocketHandler;
+    }
+
+    public boolean isJudged(CodeSubmission codeSubmission) {
+        return codeSubmission.getTestCases() != null && !codeSubmission.getTestCases().isEmpty();
+    }
+
+    public long caseTimeLimitMillis(CodeSubmission codeSubmission) {
+        Long requested = codeSubmission.getCaseTimeLimitMillis();
+        if (requested == null || requested <= 0) {
+            return defaultCaseTimeLimitMillis;
+        }
+        return Math.min(requested, maxCaseTimeLimitMillis);
+    }
+
+    // The container has to outlive all cases, each of which may use its full time limit
+    public ResourceProfile profileFor(ResourceProfile profile, int caseCount, long caseTimeLimitMillis) {
+        long extraSeconds = caseCount * (TimeUnit.MILLISECONDS.toSeconds(caseTimeLimitMillis) + 2);
+        return new ResourceProfile(profile.getCpus(), profile.getMemoryMb(), profile.getPidsLimit(),
+                profile.getOpenFiles(), profile.getCpuTimeSeconds() + extraSeconds,
+                profile.getWallClockSeconds() + extraSeconds);
+    }
+
+    /**
+     * Writes the case inputs to the workspace and returns the shell command that runs all cases.
+     * {@code compileCommand} is null if there is nothing to compile; {@code runCommand} is run from the workspace.
+     */
+    public String prepare(Path workspace, List<TestCase> testCases, String compileCommand, String runCommand,
+                          long caseTimeLimitMillis) throws IOException {
+        Path casesDir = Files.createDirectories(workspace.resolve(CASES_DIR));
+        for (int i = 0; i < testCases.size(); i++) {
+            String input = testCases.get(i).getInput();
+            Files.writeString(casesDir.resolve((i + 1) + ".in"), input != null ? input : "");
+        }
+        return command(testCases.size(), compileCommand, runCommand, caseTimeLimitMillis);
+    }
+
+    String command(int caseCount, String compileCommand, String runCommand, long caseTimeLimitMillis) {
+        String timeLimit = String.format(Locale.ROOT, "%.3f", caseTimeLimitMillis / 1000.0);
+        // ulimit -f counts 512-byte blocks in POSIX shells
+        long outputBlocks = Math.max(1, caseOutputLimitBytes / 512);
+        String asCaseUser = "setpriv --reuid=" + caseUid + " --regid=" + caseUid + " --clear-groups ";
+        // The case uid reads the source and artifacts, but neither the inputs nor the results of any case
+        StringBuilder script = new StringBuilder()
+                .append("cd ").append(Constants.CONTAINER_WORKSPACE).append('\n')
+                .append("chmod 755 .\n")
+                .append("chmod 700 ").append(CASES_DIR).append('\n');
+        if (compileCommand != null) {
+            script.append("if ! { ").append(compileCommand).append("; }; then\n")
+                    .append("  touch ").append(CASES_DIR).append('/').append(COMPILE_FAILED_FILE).append('\n')
+                    .append("  exit 1\n")
+                    .append("fi\n");
+        }
+        script.append("i=1\n")
+                .append("while [ \"$i\" -le ").append(caseCount).append(" ]; do\n")
+                .append("  echo \"Running test case $i of ").append(caseCount).append("\"\n")
+                .append("  start=$(date +%s%N)\n")
+                .append("  (ulimit -f ").append(outputBlocks).append("; exec timeout -k 1 ").append(timeLimit)
+                .append(' ').append(asCaseUser).append(runCommand)
+                .append(" < cases/$i.in > cases/$i.out 2> cases/$i.err)\n")
+                .append("  status=$?\n")
+                .append("  end=$(date +%s%N)\n")
+                // kill(-1) reaches every process the case uid may signal, wherever it has moved itself
+                .append("  ").append(asCaseUser).append("sh -c 'kill -9 -1' 2> /dev/null\n")
+                .append("  echo $status > cases/$i.exit\n")
+                .append("  echo $(( (end - start) / 1000000 )) > cases/$i.ms\n")
+                .append("  i=$((i + 1))\n")
+                .append("done\n");
+        return script.toString();
+    }
+
+    // Reads what the script left in the workspace; cases the container did not get to are NOT_RUN
+    public List<CaseVerdict> verdicts(Path workspace, List<TestCase> testCases, long caseTimeLimitMillis) {
+        Path casesDir = workspace.resolve(CASES_DIR);
+        boolean compileFailed = Files.exists(casesDir.resolve(COMPILE_FAILED_FILE));
+        List<CaseVerdict> verdicts = new ArrayList<>(testCases.size());
+        for (int i = 1; i <= testCases.size(); i++) {
+            if (compileFailed) {
+                verdicts.add(new CaseVerdict(i, CaseVerdict.COMPILE_ERROR, null, 0));
+                continue;
+            }
+            Integer exitCode = readNumber(casesDir.resolve(i + ".exit"));
+            if (exitCode == null) {
+                verdicts.add(new CaseVerdict(i, CaseVerdict.NOT_RUN, null, 0));
+                continue;
+            }
+            Integer measured = readNumber(casesDir.resolve(i + ".ms"));
+            long timeMillis = measured != null ? measured : 0;
+            String verdict = verdict(exitCode, timeMillis >= caseTimeLimitMillis, casesDir.resolve(i + ".out"),
+                    testCases.get(i - 1).getExpectedOutput());
+            verdicts.add(new CaseVerdict(i, verdict, exitCode, timeMillis));
+        }
+        return verdicts;
+    }
+
+    public void publishVerdicts(String sessionId, List<CaseVerdict> verdicts) {
+        try {
+            webSocketHandler.sendControlMessage(sessionId, "judge_result", objectMapper.writeValueAsString(verdicts));
+        } catch (IOException e) {
+            log.warn("Could not send verdicts to session {}: {}", sessionId, e.getMessage());
+        }
+    }
+
+    private String verdict(int exitCode, boolean outOfTime, Path output, String expectedOutput) {
+        switch (exitCode) {
+            case 0:
+                break;
+            case EXIT_TIMEOUT:
+                return CaseVerdict.TIME_LIMIT_EXCEEDED;
+            case EXIT_KILLED:
+                return outOfTime ? CaseVerdict.TIME_LIMIT_EXCEEDED : CaseVerdict.RUNTIME_ERROR;
+            case EXIT_OUTPUT_LIMIT:
+                return CaseVerdict.OUTPUT_LIMIT_EXCEEDED;
+            default:
+                return CaseVerdict.RUNTIME_ERROR;
+        }
+        try (InputStream actual = Files.newInputStream(output)) {
+            return OutputComparator.matches(actual, expectedOutput) ? CaseVerdict.ACCEPTED : CaseVerdict.WRONG_ANSWER;
+        } catch (IOException e) {
+            log.warn("Could not read test case output {}: {}", output, e.getMessage());
+            return CaseVerdict.RUNTIME_ERROR;
+        }
+    }
+
+    private Integer readNumber(Path file) {
+        try {
+            return Integer.valueOf(Files.readString(file).trim());
+        } catch (IOException | NumberFormatException e) {
+            return null;
+        }
+    }
+}
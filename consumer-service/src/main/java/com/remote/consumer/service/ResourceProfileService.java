@@ -0,0 +1,62 @@
+package com.remote.consumer.service;
+
+import com.github.dockerjava.api.model.Bind;
+import com.github.dockerjava.api.model.HostConfig;
+import com.github.dockerjava.api.model.Ulimit;
+import com.github.dockerjava.api.model.Volume;
+import com.remote.consumer.config.Constants;
+import com.remote.consumer.model.Language;
+import com.remote.consumer.model.ResourceProfile;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+
+/**
+ * Resolves the per-language resource profile. Every value can be overridden per language with
+ * {@code execution.limits.<language>.<limit>} or for all languages with {@code execution.limits.default.<limit>}.
+ */
+@Service
+public class ResourceProfileService {
+
+    private final Environment environment;
+
+    @Autowired
+    public ResourceProfileService(Environment environment) {
+        this.environment = environment;
+    }
+
+    public ResourceProfile profileOf(Language language) {
+        return new ResourceProfile(
+                limit(language, "cpus", Double.class, language.getDefaultCpus()),
+                limit(language, "memory-mb", Long.class, language.getDefaultMemoryMb()),
+                limit(language, "pids", Long.class, 64L),
+                limit(language, "open-files", Long.class, 256L),
+                limit(language, "cpu-seconds", Long.class, 10L),
+                limit(language, "wall-seconds", Long.class, 300L));
+    }
+
+    // Host config shared by freshly created and pooled containers
+    public HostConfig hostConfig(Language language, Path workspace) {
+        ResourceProfile profile = profileOf(language);
+        long memoryBytes = profile.getMemoryMb() * 1024 * 1024;
+        return HostConfig.newHostConfig()
+                .withAutoRemove(true)
+                .withBinds(new Bind(workspace.toAbsolutePath().toString(), new Volume(Constants.CONTAINER_WORKSPACE)))
+                .withNanoCPUs((long) (profile.getCpus() * 1_000_000_000L))
+                .withMemory(memoryBytes)
+                .withMemorySwap(memoryBytes) // no swap on top of the memory limit
+                .withPidsLimit(profile.getPidsLimit())
+                .withUlimits(new Ulimit[]{
+                        new Ulimit("nofile", profile.getOpenFiles(), profile.getOpenFiles()),
+                        // Per-process backstop, the container-wide CPU time is enforced by ExecutionDeadlineEnforcer
+                        new Ulimit("cpu", profile.getCpuTimeSeconds(), profile.getCpuTimeSeconds())
+                });
+    }
+
+    private <T> T limit(Language language, String name, Class<T> type, T defaultValue) {
+        T value = environment.getProperty("execution.limits." + language.key() + "." + name, type);
+        return value != null ? value : environment.getProperty("execution.limits.default." + name, type, defaultValue);
+    }
+}
@@ -0,0 +1,137 @@
+package com.remote.consumer.service;
+
+import com.remote.consumer.model.ExecutionRun;
+import com.remote.consumer.model.Language;
+import com.remote.consumer.stream.OutputCapture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Opt-in cache of program output, keyed by the hash of language, image id and source, for programs that are
+ * assumed to print the same output on every run. Only runs that read no stdin, exited with 0 and were not
+ * killed or truncated are stored. Entries expire after {@code ttlSeconds} and the least recently used ones are
+ * evicted once the cache holds more than {@code maxBytes}.
+ */
+@Service
+public class ResultCacheService {
+
+    private static final Logger log = LoggerFactory.getLogger(ResultCacheService.class);
+
+    private final ImageRegistryService imageRegistryService;
+
+    // Access-ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final ReentrantLock entriesLock = new ReentrantLock();
+    private long totalBytes;
+
+    @Value("${execution.result-cache.enabled:false}")
+    private boolean enabled;
+
+    @Value("${execution.result-cache.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    @Value("${execution.result-cache.max-bytes:67108864}")
+    private long maxBytes;
+
+    @Value("${execution.result-cache.max-entry-bytes:1048576}")
+    private long maxEntryBytes;
+
+    @Autowired
+    public ResultCacheService(ImageRegistryService imageRegistryService) {
+        this.imageRegistryService = imageRegistryService;
+    }
+
+    // Null if results of this language cannot be cached right now, e.g. its image is not known yet
+    public String key(Language language, String source, String sourceHash) {
+        if (!enabled) {
+            return null;
+        }
+        String imageId = imageRegistryService.getImageId(language.getImageName());
+        if (imageId == null) {
+            return null;
+        }
+        // Submissions from producers that do not send the source hash yet
+        String sourceId = sourceHash != null ? sourceHash : sha256(source.getBytes(StandardCharsets.UTF_8));
+        return sha256((language.key() + "\0" + imageId + "\0" + sourceId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    // The cached output, or null on a miss
+    public byte[] lookup(String key) {
+        entriesLock.lock();
+        try {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (System.nanoTime() - entry.storedAt > TimeUnit.SECONDS.toNanos(ttlSeconds)) {
+                entries.remove(key);
+                totalBytes -= entry.output.length;
+                return null;
+            }
+            return entry.output;
+        } finally {
+            entriesLock.unlock();
+        }
+    }
+
+    public void store(String key, ExecutionRun run) {
+        OutputCapture output = run.getOutput();
+        if (run.isInputUsed() || run.getTerminationReason() != null || run.getExitCode() == null
+                || run.getExitCode() != 0 || output.isTruncated() || output.getTotalBytes() > maxEntryBytes) {
+            return;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream((int) output.getTotalBytes());
+        try {
+            output.writeTo(bytes);
+        } catch (IOException e) {
+            log.debug("Could not read output for result cache entry {}: {}", key, e.getMessage());
+            return;
+        }
+        Entry entry = new Entry(bytes.toByteArray(), System.nanoTime());
+
+        int evicted = 0;
+        entriesLock.lock();
+        try {
+            Entry previous = entries.put(key, entry);
+            if (previous != null) {
+                totalBytes -= previous.output.length;
+            }
+            totalBytes += entry.output.length;
+            Iterator<Map.Entry<String, Entry>> lru = entries.entrySet().iterator();
+            while (totalBytes > maxBytes && lru.hasNext()) {
+                totalBytes -= lru.next().getValue().output.length;
+                lru.remove();
+                evicted++;
+            }
+        } finally {
+            entriesLock.unlock();
+        }
+        log.info("Cached result {} ({} bytes, {} evicted)", key, entry.output.length, evicted);
+    }
+
+    private static String sha256(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Entry(byte[] output, long storedAt) {
+    }
+}
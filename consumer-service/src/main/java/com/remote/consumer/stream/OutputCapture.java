@@ -0,0 +1,229 @@
+package com.remote.consumer.stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded capture of a program's output. The first {@code headBytes} and the last {@code tailBytes} stay in
+ * memory; everything in between is spilled to a temp file, or dropped if spilling is disabled or fails. Once
+ * {@code maxBytes} have been written, {@link #write} refuses further output so the caller can stop the program.
+ */
+public class OutputCapture implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(OutputCapture.class);
+
+    private final long maxBytes;
+    private final boolean spillEnabled;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final byte[] head;
+    private int headLength;
+    // Ring buffer holding the most recent output after the head
+    private final byte[] tail;
+    private int tailStart;
+    private int tailLength;
+
+    private Path spillFile;
+    private FileChannel spillChannel;
+    private long spilledBytes;
+    private long droppedBytes;
+    private long totalBytes;
+    private boolean limitExceeded;
+
+    public OutputCapture(int headBytes, int tailBytes, long maxBytes, boolean spillEnabled) {
+        this.head = new byte[headBytes];
+        this.tail = new byte[tailBytes];
+        this.maxBytes = maxBytes;
+        this.spillEnabled = spillEnabled;
+    }
+
+    // Returns false once the output limit is reached; bytes beyond the limit are discarded
+    public boolean write(byte[] data) {
+        lock.lock();
+        try {
+            if (limitExceeded) {
+                return false;
+            }
+            int length = data.length;
+            if (totalBytes + length > maxBytes) {
+                length = (int) (maxBytes - totalBytes);
+                limitExceeded = true;
+            }
+            totalBytes += length;
+
+            int toHead = Math.min(length, head.length - headLength);
+            System.arraycopy(data, 0, head, headLength, toHead);
+            headLength += toHead;
+            appendTail(data, toHead, length - toHead);
+            return !limitExceeded;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getTotalBytes() {
+        lock.lock();
+        try {
+            return totalBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isLimitExceeded() {
+        lock.lock();
+        try {
+            return limitExceeded;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Whether writeTo() would not reproduce the complete output
+    public boolean isTruncated() {
+        lock.lock();
+        try {
+            return limitExceeded || droppedBytes > 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public byte[] head() {
+        lock.lock();
+        try {
+            return Arrays.copyOf(head, headLength);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public byte[] tail() {
+        lock.lock();
+        try {
+            byte[] copy = new byte[tailLength];
+            int first = Math.min(tailLength, tail.length - tailStart);
+            System.arraycopy(tail, tailStart, copy, 0, first);
+            System.arraycopy(tail, 0, copy, first, tailLength - first);
+            return copy;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Writes head, spilled middle and tail in order
+    public void writeTo(OutputStream out) throws IOException {
+        lock.lock();
+        try {
+            out.write(head, 0, headLength);
+            if (spillChannel != null) {
+                spillChannel.force(false);
+                try (FileChannel reader = FileChannel.open(spillFile, StandardOpenOption.READ)) {
+                    reader.transferTo(0, spilledBytes, Channels.newChannel(out));
+                }
+            }
+            out.write(tail());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Deletes the spill file
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closeSpill();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void appendTail(byte[] data, int offset, int length) {
+        if (length == 0 || tail.length == 0) {
+            spill(data, offset, length);
+            return;
+        }
+        if (length >= tail.length) {
+            // The whole current tail and the start of the new data fall into the middle
+            evictTail(tailLength);
+            spill(data, offset, length - tail.length);
+            System.arraycopy(data, offset + length - tail.length, tail, 0, tail.length);
+            tailStart = 0;
+            tailLength = tail.length;
+            return;
+        }
+        int overflow = tailLength + length - tail.length;
+        if (overflow > 0) {
+            evictTail(overflow);
+        }
+        int end = (tailStart + tailLength) % tail.length;
+        int first = Math.min(length, tail.length - end);
+        System.arraycopy(data, offset, tail, end, first);
+        System.arraycopy(data, offset + first, tail, 0, length - first);
+        tailLength += length;
+    }
+
+    private void evictTail(int count) {
+        int first = Math.min(count, tail.length - tailStart);
+        spill(tail, tailStart, first);
+        spill(tail, 0, count - first);
+        tailStart = (tailStart + count) % tail.length;
+        tailLength -= count;
+    }
+
+    private void spill(byte[] data, int offset, int length) {
+        if (length == 0) {
+            return;
+        }
+        if (spillEnabled && droppedBytes == 0) {
+            try {
+                if (spillChannel == null) {
+                    spillFile = Files.createTempFile("output_", ".spill");
+                    spillChannel = FileChannel.open(spillFile, StandardOpenOption.WRITE);
+                }
+                ByteBuffer buffer = ByteBuffer.wrap(data, offset, length);
+                while (buffer.hasRemaining()) {
+                    spillChannel.write(buffer);
+                }
+                spilledBytes += length;
+                return;
+            } catch (IOException e) {
+                // A partial middle is useless, keep only head and tail from here on
+                log.warn("Could not spill output, dropping the middle of the output", e);
+                closeSpill();
+            }
+        }
+        droppedBytes += length;
+    }
+
+    private void closeSpill() {
+        if (spillFile == null) {
+            return;
+        }
+        droppedBytes += spilledBytes;
+        spilledBytes = 0;
+        try {
+            if (spillChannel != null) {
+                spillChannel.close();
+            }
+            Files.deleteIfExists(spillFile);
+        } catch (IOException e) {
+            log.warn("Could not delete spill file {}", spillFile, e);
+        }
+        spillChannel = null;
+        spillFile = null;
+    }
+}
@@ -0,0 +1,53 @@
+package com.remote.consumer.stream;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compares a program's output with the expected output a line at a time, so the output is never held in memory
+ * as a whole and the comparison stops at the first differing line. Trailing whitespace of a line, line endings
+ * and trailing empty lines are not significant.
+ */
+public final class OutputComparator {
+
+    private OutputComparator() {
+    }
+
+    public static boolean matches(InputStream actual, String expected) throws IOException {
+        return matches(new InputStreamReader(actual, StandardCharsets.UTF_8),
+                new StringReader(expected != null ? expected : ""));
+    }
+
+    public static boolean matches(Reader actual, Reader expected) throws IOException {
+        BufferedReader actualLines = new BufferedReader(actual);
+        BufferedReader expectedLines = new BufferedReader(expected);
+        while (true) {
+            String actualLine = actualLines.readLine();
+            String expectedLine = expectedLines.readLine();
+            if (actualLine == null) {
+                return expectedLine == null || onlyBlankLinesLeft(expectedLine, expectedLines);
+            }
+            if (expectedLine == null) {
+                return onlyBlankLinesLeft(actualLine, actualLines);
+            }
+            if (!actualLine.stripTrailing().equals(expectedLine.stripTrailing())) {
+                return false;
+            }
+        }
+    }
+
+    private static boolean onlyBlankLinesLeft(String line, BufferedReader lines) throws IOException {
+        while (line != null) {
+            if (!line.isBlank()) {
+                return false;
+            }
+            line = lines.readLine();
+        }
+        return true;
+    }
+}
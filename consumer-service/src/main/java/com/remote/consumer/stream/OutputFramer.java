@@ -0,0 +1,158 @@
+package com.remote.consumer.stream;
+
+import com.github.dockerjava.api.model.StreamType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Turns raw container frames into text chunks for the client. Stdout and stderr are buffered separately as
+ * bytes; a stream is flushed up to its last newline, when it reaches {@code flushBytes}, or {@code flushDelayMillis}
+ * after output arrived (so prompts without a newline still show up). A multi-byte UTF-8 character split across
+ * frames is held back until it is complete. Each frame only copies its own bytes and scans them for a newline.
+ */
+public class OutputFramer {
+
+    private final int flushBytes;
+    private final long flushDelayMillis;
+    private final ScheduledExecutorService scheduler;
+    private final Consumer<String> sink;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Buffer stdout = new Buffer();
+    private final Buffer stderr = new Buffer();
+    private ScheduledFuture<?> pendingFlush;
+
+    public OutputFramer(int flushBytes, long flushDelayMillis, ScheduledExecutorService scheduler,
+                        Consumer<String> sink) {
+        this.flushBytes = flushBytes;
+        this.flushDelayMillis = flushDelayMillis;
+        this.scheduler = scheduler;
+        this.sink = sink;
+    }
+
+    public void append(StreamType streamType, byte[] payload) {
+        lock.lock();
+        try {
+            Buffer buffer = streamType == StreamType.STDERR ? stderr : stdout;
+            int start = buffer.length;
+            buffer.write(payload);
+            if (buffer.length >= flushBytes) {
+                emit(buffer, buffer.length);
+            } else {
+                int newline = buffer.lastNewline(start);
+                if (newline >= 0) {
+                    emit(buffer, newline + 1);
+                }
+            }
+            if (pendingFlush == null && (stdout.length > 0 || stderr.length > 0)) {
+                pendingFlush = scheduler.schedule(this::flushDue, flushDelayMillis, TimeUnit.MILLISECONDS);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Emits everything that is left, including an incomplete trailing character
+    public void finish() {
+        lock.lock();
+        try {
+            if (pendingFlush != null) {
+                pendingFlush.cancel(false);
+                pendingFlush = null;
+            }
+            emitAll(stdout);
+            emitAll(stderr);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flushDue() {
+        lock.lock();
+        try {
+            pendingFlush = null;
+            emit(stdout, stdout.length);
+            emit(stderr, stderr.length);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void emit(Buffer buffer, int end) {
+        int boundary = utf8Boundary(buffer.bytes, end);
+        if (boundary > 0) {
+            sink.accept(new String(buffer.bytes, 0, boundary, StandardCharsets.UTF_8));
+            buffer.discard(boundary);
+        }
+    }
+
+    private void emitAll(Buffer buffer) {
+        if (buffer.length > 0) {
+            sink.accept(new String(buffer.bytes, 0, buffer.length, StandardCharsets.UTF_8));
+            buffer.discard(buffer.length);
+        }
+    }
+
+    // Largest prefix of bytes[0, end) that does not end inside a multi-byte UTF-8 sequence
+    static int utf8Boundary(byte[] bytes, int end) {
+        int i = end - 1;
+        int continuation = 0;
+        while (i >= 0 && continuation < 3 && (bytes[i] & 0xC0) == 0x80) {
+            i--;
+            continuation++;
+        }
+        if (i < 0) {
+            return end;
+        }
+        int lead = bytes[i] & 0xFF;
+        int length;
+        if (lead < 0x80) {
+            length = 1;
+        } else if ((lead & 0xE0) == 0xC0) {
+            length = 2;
+        } else if ((lead & 0xF0) == 0xE0) {
+            length = 3;
+        } else if ((lead & 0xF8) == 0xF0) {
+            length = 4;
+        } else {
+            // Not valid UTF-8 anyway, let the decoder replace it
+            return end;
+        }
+        return end - i >= length ? end : i;
+    }
+
+    private static class Buffer {
+        private byte[] bytes = new byte[256];
+        private int length;
+
+        private void write(byte[] payload) {
+            if (length + payload.length > bytes.length) {
+                byte[] grown = new byte[Math.max(bytes.length * 2, length + payload.length)];
+                System.arraycopy(bytes, 0, grown, 0, length);
+                bytes = grown;
+            }
+            System.arraycopy(payload, 0, bytes, length, payload.length);
+            length += payload.length;
+        }
+
+        // Last newline at or after from, or -1
+        private int lastNewline(int from) {
+            for (int i = length - 1; i >= from; i--) {
+                if (bytes[i] == '\n') {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private void discard(int count) {
+            System.arraycopy(bytes, count, bytes, 0, length - count);
+            length -= count;
+        }
+    }
+}
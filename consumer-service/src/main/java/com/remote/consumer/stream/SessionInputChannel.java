@@ -0,0 +1,165 @@
+package com.remote.consumer.stream;
+
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded stdin buffer for one session. Writers never block: {@link #offer} either queues the whole input
+ * or rejects it. The container side reads through {@link #inputStream()}, which blocks until input arrives
+ * or the channel is closed (EOF). Unlike piped streams, neither side is tied to a particular thread.
+ * <p>
+ * Crossing the high watermark reports {@link Offer#PAUSED}; once the reader drains the buffer below the
+ * low watermark the {@code onResume} callback runs on the reading thread.
+ */
+public class SessionInputChannel {
+
+    public enum Offer {
+        ACCEPTED,
+        // Accepted, but the buffer is filling up and the client should hold further input
+        PAUSED,
+        // Not accepted, it does not fit into the remaining capacity
+        REJECTED,
+        CLOSED
+    }
+
+    private final int capacity;
+    private final int highWatermark;
+    private final int lowWatermark;
+    private final Runnable onResume;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition readable = lock.newCondition();
+    private final ArrayDeque<byte[]> chunks = new ArrayDeque<>();
+    private int headOffset;
+    private int buffered;
+    private boolean paused;
+    private boolean closed;
+    private boolean used;
+
+    private final InputStream inputStream = new InputStream() {
+        @Override
+        public int read() {
+            byte[] single = new byte[1];
+            int read = read(single, 0, 1);
+            return read < 0 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            return drain(target, offset, length);
+        }
+
+        @Override
+        public int available() {
+            lock.lock();
+            try {
+                return buffered;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void close() {
+            SessionInputChannel.this.close();
+        }
+    };
+
+    public SessionInputChannel(int capacity, Runnable onResume) {
+        this.capacity = capacity;
+        this.highWatermark = capacity * 3 / 4;
+        this.lowWatermark = capacity / 4;
+        this.onResume = onResume;
+    }
+
+    public Offer offer(byte[] data) {
+        lock.lock();
+        try {
+            if (closed) {
+                return Offer.CLOSED;
+            }
+            if (buffered + data.length > capacity) {
+                paused = true;
+                return Offer.REJECTED;
+            }
+            chunks.addLast(data);
+            buffered += data.length;
+            used = true;
+            readable.signal();
+            if (!paused && buffered >= highWatermark) {
+                paused = true;
+                return Offer.PAUSED;
+            }
+            return Offer.ACCEPTED;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Signals EOF to the reader once the buffered input has been consumed
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            readable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public InputStream inputStream() {
+        return inputStream;
+    }
+
+    // Whether any input was ever accepted; the result cache only keeps the output of runs that got none, since
+    // replaying it must not depend on what a client typed
+    public boolean isUsed() {
+        lock.lock();
+        try {
+            return used;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int drain(byte[] target, int offset, int length) {
+        boolean resumed = false;
+        int copied = 0;
+        lock.lock();
+        try {
+            while (buffered == 0 && !closed) {
+                readable.awaitUninterruptibly();
+            }
+            if (buffered == 0) {
+                return -1;
+            }
+            while (copied < length && !chunks.isEmpty()) {
+                byte[] head = chunks.peekFirst();
+                int n = Math.min(length - copied, head.length - headOffset);
+                System.arraycopy(head, headOffset, target, offset + copied, n);
+                copied += n;
+                headOffset += n;
+                if (headOffset == head.length) {
+                    chunks.pollFirst();
+                    headOffset = 0;
+                }
+            }
+            buffered -= copied;
+            if (paused && buffered <= lowWatermark) {
+                paused = false;
+                resumed = true;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (resumed && onResume != null) {
+            onResume.run();
+        }
+        return copied;
+    }
+}
@@ -0,0 +1,285 @@
+package com.remote.consumer.stream;
+
+import com.remote.consumer.model.SessionStats;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Outbound queue of one WebSocket session. Callers never block on the socket: messages are queued and a single
+ * drain task per session sends them on the {@code sender} executor, so a slow client only ties up its own drain.
+ * Output chunks queued behind each other are merged into one frame of at most {@code maxFrameChars}; control
+ * messages are always sent as separate frames.
+ * <p>
+ * A client that falls behind first loses its pending output (replaced by a notice) once more than
+ * {@code maxPendingChars} are queued, and is disconnected once its oldest undelivered message, queued or stuck in
+ * a send, is older than {@code maxLagMillis}. That is checked on every enqueue and by {@link #disconnectIfStalled},
+ * which the owner calls periodically for sockets that stall after the program's last output.
+ * <p>
+ * Output queued with a {@code sendLatency} timer records how long each frame took from being queued until the
+ * socket accepted it.
+ */
+public class SessionOutbox {
+
+    private static final Logger log = LoggerFactory.getLogger(SessionOutbox.class);
+
+    private final String sessionId;
+    private final WebSocketSession session;
+    private final Executor sender;
+    private final int maxPendingChars;
+    private final int maxFrameChars;
+    private final long maxLagNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ArrayDeque<Pending> pending = new ArrayDeque<>();
+    private int pendingChars;
+    private boolean draining;
+    // enqueuedAt of the message being sent, 0 while no send is in progress
+    private long sendingSince;
+    private boolean closed;
+    private long sentFrames;
+    private long coalescedChunks;
+    private long droppedChars;
+
+    public SessionOutbox(String sessionId, WebSocketSession session, Executor sender,
+                         int maxPendingChars, int maxFrameChars, long maxLagMillis) {
+        this.sessionId = sessionId;
+        this.session = session;
+        this.sender = sender;
+        this.maxPendingChars = maxPendingChars;
+        this.maxFrameChars = maxFrameChars;
+        this.maxLagNanos = TimeUnit.MILLISECONDS.toNanos(maxLagMillis);
+    }
+
+    public WebSocketSession getSession() {
+        return session;
+    }
+
+    // Program output, may be merged with output queued before it
+    public void sendText(String text) {
+        sendText(text, null);
+    }
+
+    public void sendText(String text, Timer sendLatency) {
+        enqueue(text, true, sendLatency);
+    }
+
+    public void sendControl(String message) {
+        enqueue(message, false, null);
+    }
+
+    // Drops whatever is still queued; the session itself is closed by the caller
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            pending.clear();
+            pendingChars = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public SessionStats stats() {
+        lock.lock();
+        try {
+            Pending oldest = pending.peekFirst();
+            long lagMillis = oldest != null
+                    ? TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - oldest.enqueuedAt)
+                    : 0;
+            return new SessionStats(sessionId, pendingChars, lagMillis, sentFrames, coalescedChunks, droppedChars);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Returns true if the session was found too far behind and is being disconnected
+    public boolean disconnectIfStalled() {
+        lock.lock();
+        try {
+            if (closed || !stalled(System.nanoTime())) {
+                return false;
+            }
+            closeStalled();
+        } finally {
+            lock.unlock();
+        }
+        disconnectSlowClient();
+        return true;
+    }
+
+    private void enqueue(String message, boolean mergeable, Timer sendLatency) {
+        boolean startDrain;
+        boolean tooSlow = false;
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            long now = System.nanoTime();
+            if (stalled(now)) {
+                tooSlow = true;
+                closeStalled();
+                startDrain = false;
+            } else {
+                if (mergeable && pendingChars + message.length() > maxPendingChars) {
+                    dropPendingOutput(now);
+                }
+                append(message, mergeable, sendLatency, now);
+                startDrain = !draining;
+                draining = true;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (tooSlow) {
+            disconnectSlowClient();
+        } else if (startDrain) {
+            try {
+                sender.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                log.warn("No sender available for WebSocket session {}, disconnecting it", sessionId);
+                close();
+                lock.lock();
+                try {
+                    draining = false;
+                } finally {
+                    lock.unlock();
+                }
+                closeSession(CloseStatus.SERVICE_OVERLOAD);
+            }
+        }
+    }
+
+    // Called with the lock held
+    private boolean stalled(long now) {
+        Pending oldest = pending.peekFirst();
+        long since = sendingSince != 0 ? sendingSince : oldest != null ? oldest.enqueuedAt : now;
+        return now - since > maxLagNanos;
+    }
+
+    // Called with the lock held
+    private void closeStalled() {
+        closed = true;
+        pending.clear();
+        pendingChars = 0;
+    }
+
+    // The stuck send may hold the socket, so the close runs on a sender thread rather than the caller's
+    private void disconnectSlowClient() {
+        log.warn("Disconnecting WebSocket session {}, it is more than {} ms behind",
+                sessionId, TimeUnit.NANOSECONDS.toMillis(maxLagNanos));
+        try {
+            sender.execute(() -> closeSession(CloseStatus.SESSION_NOT_RELIABLE));
+        } catch (RejectedExecutionException e) {
+            closeSession(CloseStatus.SESSION_NOT_RELIABLE);
+        }
+    }
+
+    private void append(String message, boolean mergeable, Timer sendLatency, long now) {
+        Pending last = pending.peekLast();
+        if (mergeable && last != null && last.mergeable && last.sendLatency == sendLatency
+                && last.content.length() + message.length() <= maxFrameChars) {
+            last.content.append(message);
+            coalescedChunks++;
+        } else {
+            pending.addLast(new Pending(message, mergeable, sendLatency, now));
+        }
+        pendingChars += message.length();
+    }
+
+    private void dropPendingOutput(long now) {
+        int dropped = 0;
+        ArrayDeque<Pending> kept = new ArrayDeque<>();
+        for (Pending item : pending) {
+            if (item.mergeable) {
+                dropped += item.content.length();
+            } else {
+                kept.addLast(item);
+            }
+        }
+        pending.clear();
+        pending.addAll(kept);
+        pendingChars -= dropped;
+        droppedChars += dropped;
+        log.warn("WebSocket session {} is too slow, dropped {} characters of output", sessionId, dropped);
+        append("\n[" + dropped + " characters of output dropped, connection too slow]\n", true, null, now);
+    }
+
+    private void drain() {
+        while (true) {
+            Pending next;
+            lock.lock();
+            try {
+                next = pending.pollFirst();
+                if (next == null || closed) {
+                    draining = false;
+                    return;
+                }
+                pendingChars -= next.content.length();
+                sendingSince = next.enqueuedAt;
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                session.sendMessage(new TextMessage(next.content));
+                if (next.sendLatency != null) {
+                    next.sendLatency.record(System.nanoTime() - next.enqueuedAt, TimeUnit.NANOSECONDS);
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.warn("Could not send to WebSocket session {}: {}", sessionId, e.getMessage());
+                close();
+                lock.lock();
+                try {
+                    draining = false;
+                    sendingSince = 0;
+                } finally {
+                    lock.unlock();
+                }
+                return;
+            }
+
+            lock.lock();
+            try {
+                sendingSince = 0;
+                sentFrames++;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void closeSession(CloseStatus status) {
+        try {
+            session.close(status);
+        } catch (IOException e) {
+            log.debug("Could not close WebSocket session {}: {}", sessionId, e.getMessage());
+        }
+    }
+
+    private static class Pending {
+        private final StringBuilder content;
+        private final boolean mergeable;
+        private final Timer sendLatency;
+        private final long enqueuedAt;
+
+        private Pending(String message, boolean mergeable, Timer sendLatency, long enqueuedAt) {
+            this.content = new StringBuilder(message);
+            this.mergeable = mergeable;
+            this.sendLatency = sendLatency;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.remote.consumer.stream;
+
+import io.micrometer.core.instrument.Timer;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Direct output path of one execution: the execution's {@link OutputFramer} is the only producer and the
+ * session's {@link SessionOutbox} the only consumer, so chunks reach the client in the order they were produced
+ * without going through the application event bus. Output produced before the client's WebSocket is connected
+ * is held (up to {@code maxEarlyChars}) and handed over when the outbox attaches. Once another node reports
+ * that it holds the session's WebSocket ({@link #attachRemote}), the held output and all further output that
+ * has no local outbox is passed to {@code unattached}, which relays it there. Output sent through a local outbox
+ * is timed with {@code sendLatency}, if given.
+ */
+public class SessionOutputChannel {
+
+    private final int maxEarlyChars;
+    private final Consumer<String> unattached;
+    private final Timer sendLatency;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ArrayDeque<String> early = new ArrayDeque<>();
+    private int earlyChars;
+    private boolean remoteAttached;
+    private volatile SessionOutbox outbox;
+
+    public SessionOutputChannel(int maxEarlyChars, Consumer<String> unattached) {
+        this(maxEarlyChars, unattached, null);
+    }
+
+    public SessionOutputChannel(int maxEarlyChars, Consumer<String> unattached, Timer sendLatency) {
+        this.maxEarlyChars = maxEarlyChars;
+        this.unattached = unattached;
+        this.sendLatency = sendLatency;
+    }
+
+    public void send(String text) {
+        SessionOutbox target = outbox;
+        if (target != null) {
+            target.sendText(text, sendLatency);
+            return;
+        }
+        lock.lock();
+        try {
+            // Re-check under the lock so nothing overtakes the early output being handed over in attach()
+            if (outbox != null) {
+                outbox.sendText(text, sendLatency);
+                return;
+            }
+            if (earlyChars + text.length() <= maxEarlyChars) {
+                early.addLast(text);
+                earlyChars += text.length();
+            }
+            if (remoteAttached) {
+                unattached.accept(text);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Called when the session's WebSocket connects, also after a reconnect
+    public void attach(SessionOutbox outbox) {
+        lock.lock();
+        try {
+            while (!early.isEmpty()) {
+                outbox.sendText(early.pollFirst(), sendLatency);
+            }
+            earlyChars = 0;
+            this.outbox = outbox;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Whether output reaches a WebSocket, on this node or relayed to another one
+    public boolean isAttached() {
+        lock.lock();
+        try {
+            return outbox != null || remoteAttached;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Called when another node has subscribed to the session's relayed output; the held output stays held in case
+    // the WebSocket reconnects to this node
+    public void attachRemote() {
+        lock.lock();
+        try {
+            if (remoteAttached || outbox != null) {
+                return;
+            }
+            remoteAttached = true;
+            for (String text : early) {
+                unattached.accept(text);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+}
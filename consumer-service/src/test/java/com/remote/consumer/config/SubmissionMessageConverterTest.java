@@ -0,0 +1,104 @@
+package com.remote.consumer.config;
+
+import com.remote.consumer.model.CodeSubmission;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConversionException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SubmissionMessageConverterTest {
+
+    private final SubmissionMessageConverter converter = new SubmissionMessageConverter();
+
+    @Test
+    void readsTheCompressedBinaryMessage() throws IOException {
+        byte[] source = "print('héllo')\n".repeat(100).getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(body)) {
+            gzip.write(source);
+        }
+        MessageProperties properties = new MessageProperties();
+        properties.setHeader(Constants.SUBMISSION_FORMAT_HEADER, Constants.SUBMISSION_FORMAT_BINARY);
+        properties.setHeader(Constants.SUBMISSION_ID_HEADER, "id-1");
+        properties.setHeader(Constants.SESSION_ID_HEADER, "session-1");
+        properties.setHeader(Constants.LANGUAGE_HEADER, "python");
+        properties.setHeader(Constants.USER_NAME_HEADER, "alice");
+        properties.setHeader(Constants.SOURCE_SIZE_HEADER, source.length);
+        properties.setHeader(Constants.PUBLISHED_AT_HEADER, 1_700_000_000_000L);
+        properties.setContentEncoding("gzip");
+
+        CodeSubmission submission = (CodeSubmission) converter.fromMessage(new Message(body.toByteArray(), properties));
+
+        assertEquals("id-1", submission.getId());
+        assertEquals("session-1", submission.getSessionId());
+        assertEquals("python", submission.getLanguage());
+        assertEquals("alice", submission.getUserName());
+        assertEquals(new String(source, StandardCharsets.UTF_8), submission.getCodeContent());
+        assertEquals(1_700_000_000_000L, submission.getPublishedAt());
+    }
+
+    @Test
+    void rejectsBodiesLongerThanTheAnnouncedSize() throws IOException {
+        MessageProperties properties = binaryProperties();
+        properties.setHeader(Constants.SOURCE_SIZE_HEADER, 4);
+        properties.setContentEncoding("gzip");
+
+        Message message = new Message(gzip("print(1)".getBytes(StandardCharsets.UTF_8)), properties);
+
+        assertThrows(MessageConversionException.class, () -> converter.fromMessage(message));
+    }
+
+    @Test
+    void rejectsMissingOrMistypedHeaders() {
+        MessageProperties withoutSize = binaryProperties();
+        MessageProperties textFormat = new MessageProperties();
+        textFormat.setHeader(Constants.SUBMISSION_FORMAT_HEADER, "binary");
+
+        assertThrows(MessageConversionException.class,
+                () -> converter.fromMessage(new Message(new byte[0], withoutSize)));
+        assertThrows(MessageConversionException.class,
+                () -> converter.fromMessage(new Message(new byte[0], textFormat)));
+    }
+
+    @Test
+    void decodesTheSourceOfTheJsonMessage() {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+        properties.setInferredArgumentType(CodeSubmission.class);
+        String json = "{\"id\":\"id-1\",\"sessionId\":\"session-1\",\"language\":\"python\","
+                + "\"codeContent\":\"cHJpbnQoMSk=\"}";
+
+        CodeSubmission submission = (CodeSubmission) converter.fromMessage(
+                new Message(json.getBytes(StandardCharsets.UTF_8), properties));
+
+        assertEquals("print(1)", submission.getCodeContent());
+        assertEquals("session-1", submission.getSessionId());
+        assertNull(submission.getPublishedAt());
+    }
+
+    private static MessageProperties binaryProperties() {
+        MessageProperties properties = new MessageProperties();
+        properties.setHeader(Constants.SUBMISSION_FORMAT_HEADER, Constants.SUBMISSION_FORMAT_BINARY);
+        properties.setHeader(Constants.SUBMISSION_ID_HEADER, "id-1");
+        properties.setHeader(Constants.SESSION_ID_HEADER, "session-1");
+        properties.setHeader(Constants.LANGUAGE_HEADER, "python");
+        return properties;
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(body)) {
+            gzip.write(data);
+        }
+        return body.toByteArray();
+    }
+}
@@ -0,0 +1,40 @@
+package com.remote.consumer.relay;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AmqpSessionRelayTransportTest {
+
+    @Test
+    void readsRelayMessages() {
+        Message message = MessageBuilder.withBody("42".getBytes(StandardCharsets.UTF_8))
+                .setHeader(AmqpSessionRelayTransport.TYPE_HEADER, "INPUT")
+                .setHeader(AmqpSessionRelayTransport.SESSION_HEADER, "s1")
+                .build();
+
+        RelayMessage relayMessage = AmqpSessionRelayTransport.fromMessage(message);
+
+        assertEquals(RelayMessage.Type.INPUT, relayMessage.getType());
+        assertEquals("s1", relayMessage.getSessionId());
+        assertEquals("42", relayMessage.getData());
+    }
+
+    @Test
+    void rejectsMessagesWithMissingOrUnknownHeadersWithoutRequeue() {
+        Message headerless = MessageBuilder.withBody(new byte[0]).build();
+        Message unknownType = MessageBuilder.withBody(new byte[0])
+                .setHeader(AmqpSessionRelayTransport.TYPE_HEADER, "SHUTDOWN")
+                .setHeader(AmqpSessionRelayTransport.SESSION_HEADER, "s1")
+                .build();
+
+        assertThrows(AmqpRejectAndDontRequeueException.class, () -> AmqpSessionRelayTransport.fromMessage(headerless));
+        assertThrows(AmqpRejectAndDontRequeueException.class, () -> AmqpSessionRelayTransport.fromMessage(unknownType));
+    }
+}
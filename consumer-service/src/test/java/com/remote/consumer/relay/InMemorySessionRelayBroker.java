@@ -0,0 +1,52 @@
+package com.remote.consumer.relay;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Stands in for the topic exchange: delivers each published message synchronously to every node transport that
+ * has bound its routing key.
+ */
+class InMemorySessionRelayBroker {
+
+    private final List<NodeTransport> nodes = new CopyOnWriteArrayList<>();
+
+    SessionRelayTransport newNode() {
+        NodeTransport node = new NodeTransport();
+        nodes.add(node);
+        return node;
+    }
+
+    private class NodeTransport implements SessionRelayTransport {
+
+        private final Set<String> routingKeys = ConcurrentHashMap.newKeySet();
+        private Consumer<RelayMessage> receiver;
+
+        @Override
+        public void start(Consumer<RelayMessage> receiver) {
+            this.receiver = receiver;
+        }
+
+        @Override
+        public void bind(String routingKey) {
+            routingKeys.add(routingKey);
+        }
+
+        @Override
+        public void unbind(String routingKey) {
+            routingKeys.remove(routingKey);
+        }
+
+        @Override
+        public void publish(String routingKey, RelayMessage message) {
+            for (NodeTransport node : nodes) {
+                if (node.routingKeys.contains(routingKey)) {
+                    node.receiver.accept(message);
+                }
+            }
+        }
+    }
+}
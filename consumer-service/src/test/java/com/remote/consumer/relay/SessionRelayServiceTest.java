@@ -0,0 +1,145 @@
+package com.remote.consumer.relay;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SessionRelayServiceTest {
+
+    private final InMemorySessionRelayBroker broker = new InMemorySessionRelayBroker();
+    private SessionRelayService webSocketNode;
+    private SessionRelayService containerNode;
+    private final List<RelayMessage> deliveredOutput = new CopyOnWriteArrayList<>();
+    private final List<RelayMessage> deliveredInput = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        webSocketNode = startNode();
+        containerNode = startNode();
+        webSocketNode.onOutput(deliveredOutput::add);
+        containerNode.onInput(deliveredInput::add);
+    }
+
+    @Test
+    void relaysOutputToTheNodeHoldingTheWebSocket() {
+        webSocketNode.subscribeOutput("s1");
+
+        containerNode.relayOutput("s1", "hello\n");
+        containerNode.relayControl("s1", "{\"type\":\"input_paused\"}");
+        containerNode.relayOutput("s2", "not for s1\n");
+
+        assertEquals(2, deliveredOutput.size());
+        assertEquals(RelayMessage.Type.OUTPUT, deliveredOutput.get(0).getType());
+        assertEquals("hello\n", deliveredOutput.get(0).getData());
+        assertEquals(RelayMessage.Type.CONTROL, deliveredOutput.get(1).getType());
+    }
+
+    @Test
+    void relaysInputToTheNodeRunningTheContainer() {
+        containerNode.subscribeInput("s1");
+
+        webSocketNode.relayInput("s1", "42");
+        webSocketNode.relayCloseInput("s1");
+
+        assertEquals(List.of(RelayMessage.Type.INPUT, RelayMessage.Type.CLOSE_INPUT),
+                deliveredInput.stream().map(RelayMessage::getType).toList());
+        assertEquals("42", deliveredInput.get(0).getData());
+    }
+
+    @Test
+    void stopsRelayingAfterUnsubscribe() {
+        webSocketNode.subscribeOutput("s1");
+        webSocketNode.unsubscribeOutput("s1");
+
+        containerNode.relayOutput("s1", "late\n");
+
+        assertTrue(deliveredOutput.isEmpty());
+    }
+
+    @Test
+    void reportsASubscriberThatWasThereBeforeTheOutput() {
+        List<String> subscribed = new CopyOnWriteArrayList<>();
+        containerNode.onOutputSubscribed(subscribed::add);
+        webSocketNode.subscribeOutput("s1");
+
+        containerNode.awaitOutputSubscriber("s1");
+        containerNode.awaitOutputSubscriber("s2");
+
+        assertEquals(List.of("s1"), subscribed);
+    }
+
+    @Test
+    void reportsASubscriberThatArrivesAfterTheOutput() {
+        List<String> subscribed = new CopyOnWriteArrayList<>();
+        containerNode.onOutputSubscribed(subscribed::add);
+        containerNode.awaitOutputSubscriber("s1");
+        assertTrue(subscribed.isEmpty());
+
+        webSocketNode.subscribeOutput("s1");
+
+        assertEquals(List.of("s1"), subscribed);
+    }
+
+    @Test
+    void brokerFailuresDoNotReachTheLocalSession() {
+        SessionRelayService node = new SessionRelayService(new SessionRelayTransport() {
+            @Override
+            public void start(Consumer<RelayMessage> receiver) {
+            }
+
+            @Override
+            public void bind(String routingKey) {
+                throw new AmqpConnectException(new IOException("broker down"));
+            }
+
+            @Override
+            public void unbind(String routingKey) {
+                throw new AmqpConnectException(new IOException("broker down"));
+            }
+
+            @Override
+            public void publish(String routingKey, RelayMessage message) {
+                throw new AmqpConnectException(new IOException("broker down"));
+            }
+        });
+        ReflectionTestUtils.setField(node, "enabled", true);
+
+        assertDoesNotThrow(() -> {
+            node.subscribeOutput("s1");
+            node.awaitOutputSubscriber("s1");
+            node.subscribeInput("s1");
+            node.relayOutput("s1", "hello\n");
+            node.unsubscribeInput("s1");
+            node.stopAwaitingOutputSubscriber("s1");
+            node.unsubscribeOutput("s1");
+        });
+        assertTrue(((Set<?>) ReflectionTestUtils.getField(node, "outputSubscriptions")).isEmpty());
+    }
+
+    @Test
+    void sessionIdsCannotActAsTopicWildcards() {
+        String routingKey = SessionRelayService.routingKey("output", "#");
+
+        assertEquals(-1, routingKey.indexOf('#'));
+        assertNotEquals(SessionRelayService.routingKey("output", "a.b"), SessionRelayService.routingKey("output", "a_b"));
+    }
+
+    private SessionRelayService startNode() {
+        SessionRelayService node = new SessionRelayService(broker.newNode());
+        ReflectionTestUtils.setField(node, "enabled", true);
+        node.start();
+        return node;
+    }
+}
@@ -0,0 +1,73 @@
+package com.remote.consumer.service;
+
+import com.remote.consumer.model.Language;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompileCacheServiceTest {
+
+    private final CompileCacheService cache = new CompileCacheService();
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void configure() throws Exception {
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "maxBytes", 1024L);
+        ReflectionTestUtils.setField(cache, "cacheDir", tempDir.resolve("cache"));
+        ReflectionTestUtils.setField(cache, "snapshotPollMillis", 1L);
+        cache.init();
+    }
+
+    @AfterEach
+    void shutdown() {
+        cache.stop();
+    }
+
+    @Test
+    void cachesTheArtifactsAsTheyWereWhenTheCompileStepFinished() throws Exception {
+        Path workspace = Files.createDirectory(tempDir.resolve("workspace"));
+        String key = cache.key(Language.C, "int main() {}");
+        CompileCacheService.Snapshot snapshot = cache.watch(Language.C, workspace);
+
+        Files.writeString(workspace.resolve("solution"), "compiled");
+        Files.createFile(workspace.resolve(CompileCacheService.COMPILED_MARKER));
+        awaitFile(workspace.resolve(CompileCacheService.SNAPSHOT_TAKEN_MARKER));
+        // The program rewrites its own binary once it is allowed to start
+        Files.writeString(workspace.resolve("solution"), "poisoned");
+        cache.store(key, snapshot.stop());
+
+        Path next = Files.createDirectory(tempDir.resolve("next"));
+        assertTrue(cache.restore(key, next));
+        assertEquals("compiled", Files.readString(next.resolve("solution")));
+    }
+
+    @Test
+    void takesNoSnapshotIfTheCompileStepNeverFinished() throws Exception {
+        Path workspace = Files.createDirectory(tempDir.resolve("workspace"));
+        CompileCacheService.Snapshot snapshot = cache.watch(Language.C, workspace);
+        Files.writeString(workspace.resolve("solution"), "written by the program");
+
+        assertNull(snapshot.stop());
+        assertFalse(cache.restore(cache.key(Language.C, "int main() {}"), workspace));
+    }
+
+    private void awaitFile(Path file) throws InterruptedException {
+        for (int i = 0; i < 500 && !Files.exists(file); i++) {
+            Thread.sleep(10);
+        }
+        assertTrue(Files.exists(file));
+    }
+}
@@ -0,0 +1,76 @@
+package com.remote.consumer.service;
+
+import com.remote.consumer.config.Constants;
+import com.remote.consumer.model.CodeSubmission;
+import com.remote.consumer.model.ExecutionResult;
+import com.remote.consumer.model.ExecutionRun;
+import com.remote.consumer.stream.OutputCapture;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class ExecutionResultServiceTest {
+
+    private final RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+    private final ExecutionResultService executionResultService = new ExecutionResultService(rabbitTemplate);
+
+    @TempDir
+    Path outputDir;
+
+    @BeforeEach
+    void configure() throws Exception {
+        ReflectionTestUtils.setField(executionResultService, "enabled", true);
+        ReflectionTestUtils.setField(executionResultService, "outputDir", outputDir);
+        ReflectionTestUtils.setField(executionResultService, "retentionHours", 24L);
+        ReflectionTestUtils.setField(executionResultService, "nodeUrl", "http://consumer-1:8081");
+        ReflectionTestUtils.setField(executionResultService, "nodeId", "consumer-1:consumer-service:8081");
+        executionResultService.init();
+    }
+
+    @AfterEach
+    void shutdown() {
+        executionResultService.stop();
+    }
+
+    @Test
+    void reportsWhereThisNodeServesTheOutput() throws Exception {
+        String submissionId = UUID.randomUUID().toString();
+        CodeSubmission codeSubmission = new CodeSubmission();
+        codeSubmission.setId(submissionId);
+        codeSubmission.setSessionId("session");
+        try (ExecutionRun run = new ExecutionRun()) {
+            run.setOutput(new OutputCapture(1024, 1024, 4096, false));
+            run.getOutput().write("hello\n".getBytes(StandardCharsets.UTF_8));
+            run.setExitCode(0);
+
+            executionResultService.record(codeSubmission, run, 1, 2);
+        }
+
+        ArgumentCaptor<ExecutionResult> published = ArgumentCaptor.forClass(ExecutionResult.class);
+        verify(rabbitTemplate).convertAndSend(eq(Constants.EXECUTION_RESULT_QUEUE), published.capture());
+        assertEquals("http://consumer-1:8081/outputs/" + submissionId, published.getValue().getOutputUri());
+        assertEquals("consumer-1:consumer-service:8081", published.getValue().getOutputNode());
+        assertEquals("hello\n", Files.readString(executionResultService.storedOutput(submissionId).orElseThrow()));
+    }
+
+    @Test
+    void servesNothingForUnknownOrMalformedIds() {
+        assertTrue(executionResultService.storedOutput(UUID.randomUUID().toString()).isEmpty());
+        assertTrue(executionResultService.storedOutput("../../etc/passwd").isEmpty());
+    }
+}
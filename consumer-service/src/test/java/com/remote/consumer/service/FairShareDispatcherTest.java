@@ -0,0 +1,100 @@
+package com.remote.consumer.service;
+
+import com.rabbitmq.client.Channel;
+import com.remote.consumer.model.CodeSubmission;
+import com.remote.consumer.model.ExecutionCost;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FairShareDispatcherTest {
+
+    private final ExecutionScheduler executionScheduler = mock(ExecutionScheduler.class);
+    // Holds the executions instead of running them, so the session stays at its per-user limit
+    private final List<Runnable> started = new CopyOnWriteArrayList<>();
+    private final Channel channel = mock(Channel.class);
+    private FairShareDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        when(executionScheduler.costOf(any())).thenReturn(new ExecutionCost(1.0, 256));
+        dispatcher = new FairShareDispatcher(mock(DockerService.class), executionScheduler, started::add,
+                mock(ExecutionResultService.class), mock(ExecutionMetrics.class));
+        ReflectionTestUtils.setField(dispatcher, "buffer", 32);
+        ReflectionTestUtils.setField(dispatcher, "quantum", 1.0);
+        ReflectionTestUtils.setField(dispatcher, "perUserLimit", 1);
+        dispatcher.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.stop();
+    }
+
+    @Test
+    void acksOnlyWhatWasHandedToAnExecutor() throws Exception {
+        dispatcher.submit(submission("s1", "python"), channel, 1);
+        dispatcher.submit(submission("s1", "python"), channel, 2);
+
+        verify(channel, timeout(5000)).basicAck(1, false);
+        assertEquals(1, started.size());
+        assertEquals(1, dispatcher.queued());
+        verify(channel, never()).basicAck(eq(2L), anyBoolean());
+    }
+
+    @Test
+    void returnsBufferedSubmissionsToTheBrokerOnStop() throws Exception {
+        dispatcher.submit(submission("s1", "python"), channel, 1);
+        verify(channel, timeout(5000)).basicAck(1, false);
+        dispatcher.submit(submission("s1", "python"), channel, 2);
+        dispatcher.submit(submission("s1", "python"), channel, 3);
+
+        dispatcher.stop();
+
+        verify(channel).basicNack(2, false, true);
+        verify(channel).basicNack(3, false, true);
+        assertEquals(0, dispatcher.queued());
+    }
+
+    @Test
+    void rejectsSubmissionsInAnUnknownLanguage() throws Exception {
+        dispatcher.submit(submission("s1", "cobol"), channel, 1);
+
+        verify(channel).basicReject(1, false);
+        assertEquals(0, dispatcher.queued());
+    }
+
+    @Test
+    void givesAUserOneShareAcrossAllTheirSessions() {
+        CodeSubmission first = submission("s1", "python");
+        CodeSubmission second = submission("s2", "python");
+        first.setUserName("alice");
+        second.setUserName("alice");
+
+        assertEquals(FairShareDispatcher.userKey(first), FairShareDispatcher.userKey(second));
+        assertNotEquals(FairShareDispatcher.userKey(submission("s1", "python")),
+                FairShareDispatcher.userKey(submission("s2", "python")));
+    }
+
+    private static CodeSubmission submission(String sessionId, String language) {
+        CodeSubmission codeSubmission = new CodeSubmission();
+        codeSubmission.setSessionId(sessionId);
+        codeSubmission.setLanguage(language);
+        return codeSubmission;
+    }
+}
@@ -0,0 +1,94 @@
+package com.remote.consumer.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FairShareQueueTest {
+
+    @Test
+    void interleavesUsersInsteadOfServingFifo() throws InterruptedException {
+        FairShareQueue<String> queue = new FairShareQueue<>(100, 1.0, 100);
+        for (int i = 0; i < 10; i++) {
+            queue.put("heavy", "heavy-" + i, 1.0);
+        }
+        queue.put("light", "light-0", 1.0);
+        queue.put("light", "light-1", 1.0);
+
+        List<String> order = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            order.add(queue.take().item());
+        }
+
+        assertEquals(List.of("heavy-0", "light-0", "heavy-1", "light-1", "heavy-2"), order);
+    }
+
+    @Test
+    void cheapJobsGetProportionallyMoreTurns() throws InterruptedException {
+        FairShareQueue<String> queue = new FairShareQueue<>(100, 1.0, 100);
+        for (int i = 0; i < 4; i++) {
+            queue.put("expensive", "expensive-" + i, 1.0);
+            queue.put("cheap", "cheap-" + i, 0.5);
+        }
+
+        int cheap = 0;
+        for (int i = 0; i < 6; i++) {
+            if (queue.take().user().equals("cheap")) {
+                cheap++;
+            }
+        }
+
+        assertEquals(4, cheap);
+    }
+
+    @Test
+    void skipsUsersAtTheirConcurrencyLimit() throws Exception {
+        FairShareQueue<String> queue = new FairShareQueue<>(100, 1.0, 1);
+        queue.put("a", "a-0", 1.0);
+        queue.put("a", "a-1", 1.0);
+        queue.put("b", "b-0", 1.0);
+
+        assertEquals("a-0", queue.take().item());
+        assertEquals("b-0", queue.take().item());
+
+        CompletableFuture<String> next = CompletableFuture.supplyAsync(() -> {
+            try {
+                return queue.take().item();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertThrows(TimeoutException.class, () -> next.get(200, TimeUnit.MILLISECONDS));
+
+        queue.complete("a");
+        assertEquals("a-1", next.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void putBlocksWhileFull() throws Exception {
+        FairShareQueue<String> queue = new FairShareQueue<>(1, 1.0, 1);
+        queue.put("a", "a-0", 1.0);
+
+        CompletableFuture<Void> put = CompletableFuture.runAsync(() -> {
+            try {
+                queue.put("b", "b-0", 1.0);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(200);
+        assertFalse(put.isDone());
+
+        queue.take();
+        put.get(1, TimeUnit.SECONDS);
+        assertEquals(1, queue.size());
+    }
+}
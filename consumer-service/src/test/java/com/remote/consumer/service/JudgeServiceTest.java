@@ -0,0 +1,117 @@
+package com.remote.consumer.service;
+
+import com.remote.consumer.component.WebSocketHandler;
+import com.remote.consumer.config.Constants;
+import com.remote.consumer.model.CaseVerdict;
+import com.remote.consumer.model.TestCase;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.Mockito.mock;
+
+class JudgeServiceTest {
+
+    private final JudgeService judgeService = new JudgeService(mock(WebSocketHandler.class));
+
+    @TempDir
+    Path workspace;
+
+    @Test
+    void writesCaseInputsAndCompilesOnce() throws IOException {
+        ReflectionTestUtils.setField(judgeService, "caseOutputLimitBytes", 1024L);
+        ReflectionTestUtils.setField(judgeService, "caseUid", 65534);
+        List<TestCase> cases = List.of(new TestCase("1 2\n", "3\n"), new TestCase(null, "0\n"));
+
+        String command = judgeService.prepare(workspace, cases, "gcc -o solution solution.c", "./solution", 1500);
+
+        assertEquals("1 2\n", Files.readString(workspace.resolve("cases/1.in")));
+        assertEquals("", Files.readString(workspace.resolve("cases/2.in")));
+        assertEquals(1, command.split("gcc -o solution", -1).length - 1);
+        assertTrue(command.contains("ulimit -f 2; exec timeout -k 1 1.500 setpriv --reuid=65534 --regid=65534 "
+                + "--clear-groups ./solution < cases/$i.in"));
+    }
+
+    @Test
+    void derivesVerdictsFromWhatTheCasesLeftBehind() throws IOException {
+        List<TestCase> cases = List.of(new TestCase("", "3\n"), new TestCase("", "4\n"), new TestCase("", ""),
+                new TestCase("", ""), new TestCase("", ""), new TestCase("", ""));
+        caseResult(1, 0, 12, "3\n");
+        caseResult(2, 0, 15, "5\n");
+        caseResult(3, 124, 1003, "");
+        caseResult(4, 1, 20, "");
+        caseResult(5, 153, 40, "");
+
+        List<CaseVerdict> verdicts = judgeService.verdicts(workspace, cases, 1000);
+
+        assertEquals(List.of(CaseVerdict.ACCEPTED, CaseVerdict.WRONG_ANSWER, CaseVerdict.TIME_LIMIT_EXCEEDED,
+                        CaseVerdict.RUNTIME_ERROR, CaseVerdict.OUTPUT_LIMIT_EXCEEDED, CaseVerdict.NOT_RUN),
+                verdicts.stream().map(CaseVerdict::getVerdict).toList());
+        assertEquals(12, verdicts.get(0).getTimeMillis());
+    }
+
+    @Test
+    void failsEveryCaseWhenCompilationFails() throws IOException {
+        Files.createDirectories(workspace.resolve("cases"));
+        Files.createFile(workspace.resolve("cases/compile.failed"));
+
+        List<CaseVerdict> verdicts = judgeService.verdicts(workspace,
+                List.of(new TestCase("", ""), new TestCase("", "")), 1000);
+
+        assertTrue(verdicts.stream().allMatch(v -> CaseVerdict.COMPILE_ERROR.equals(v.getVerdict())));
+    }
+
+    @Test
+    void aProcessLeftBehindCannotChangeAnyVerdict() throws Exception {
+        assumeTrue("root".equals(System.getProperty("user.name")) && Files.isExecutable(Path.of("/usr/bin/setpriv")),
+                "needs root and setpriv to switch to the case uid");
+        // An otherwise unused uid, since every process it owns is killed between cases
+        ReflectionTestUtils.setField(judgeService, "caseUid", ThreadLocalRandom.current().nextInt(100_000, 200_000));
+        ReflectionTestUtils.setField(judgeService, "caseOutputLimitBytes", 1024L);
+        Path scratch = Files.createDirectory(workspace.resolve("scratch"));
+        Files.setPosixFilePermissions(scratch, PosixFilePermissions.fromString("rwxrwxrwx"));
+        Files.writeString(workspace.resolve("solution.sh"), """
+                read n
+                if [ "$n" = 1 ]; then
+                  cat cases/2.in > scratch/peeked
+                  setsid sh -c 'sleep 0.5; echo 0 > cases/1.exit; echo 1 > cases/1.out; touch scratch/survived' \\
+                    < /dev/null > /dev/null 2>&1 &
+                  exit 3
+                fi
+                sleep 1
+                echo "$n"
+                """);
+        List<TestCase> cases = List.of(new TestCase("1\n", "1\n"), new TestCase("2\n", "2\n"));
+
+        String command = judgeService.prepare(workspace, cases, null, "sh solution.sh", 5000);
+        Process harness = new ProcessBuilder("sh", "-c",
+                command.replace("cd " + Constants.CONTAINER_WORKSPACE, "cd " + workspace)).start();
+        assertTrue(harness.waitFor(20, TimeUnit.SECONDS));
+
+        List<CaseVerdict> verdicts = judgeService.verdicts(workspace, cases, 5000);
+        assertEquals(List.of(CaseVerdict.RUNTIME_ERROR, CaseVerdict.ACCEPTED),
+                verdicts.stream().map(CaseVerdict::getVerdict).toList());
+        assertEquals(Integer.valueOf(3), verdicts.get(0).getExitCode());
+        assertFalse(Files.exists(scratch.resolve("survived")));
+        assertEquals("", Files.readString(scratch.resolve("peeked")));
+    }
+
+    private void caseResult(int index, int exitCode, long millis, String output) throws IOException {
+        Path cases = Files.createDirectories(workspace.resolve("cases"));
+        Files.writeString(cases.resolve(index + ".exit"), exitCode + "\n");
+        Files.writeString(cases.resolve(index + ".ms"), millis + "\n");
+        Files.writeString(cases.resolve(index + ".out"), output);
+    }
+}
@@ -0,0 +1,88 @@
+package com.remote.consumer.service;
+
+import com.remote.consumer.model.ExecutionRun;
+import com.remote.consumer.model.Language;
+import com.remote.consumer.stream.OutputCapture;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ResultCacheServiceTest {
+
+    private final ImageRegistryService imageRegistryService = mock(ImageRegistryService.class);
+    private final ResultCacheService cache = new ResultCacheService(imageRegistryService);
+
+    @BeforeEach
+    void configure() {
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 600L);
+        ReflectionTestUtils.setField(cache, "maxBytes", 16L);
+        ReflectionTestUtils.setField(cache, "maxEntryBytes", 16L);
+        when(imageRegistryService.getImageId(Language.PYTHON.getImageName())).thenReturn("sha256:1");
+    }
+
+    @Test
+    void replaysCleanRunsThatReadNoInput() {
+        String key = cache.key(Language.PYTHON, "print(1)", null);
+        cache.store(key, run("1\n", 0, false));
+
+        assertArrayEquals(bytes("1\n"), cache.lookup(key));
+    }
+
+    @Test
+    void skipsRunsThatReadInputOrFailed() {
+        String withInput = cache.key(Language.PYTHON, "print(input())", null);
+        String failed = cache.key(Language.PYTHON, "exit(1)", null);
+        cache.store(withInput, run("a\n", 0, true));
+        cache.store(failed, run("", 1, false));
+
+        assertNull(cache.lookup(withInput));
+        assertNull(cache.lookup(failed));
+    }
+
+    @Test
+    void keysOnTheImageAndEvictsBeyondTheSizeLimit() {
+        String first = cache.key(Language.PYTHON, "print('first')", null);
+        cache.store(first, run("first-output\n", 0, false));
+        String second = cache.key(Language.PYTHON, "print('second')", null);
+        cache.store(second, run("second-output\n", 0, false));
+
+        assertNull(cache.lookup(first));
+        assertArrayEquals(bytes("second-output\n"), cache.lookup(second));
+
+        when(imageRegistryService.getImageId(Language.PYTHON.getImageName())).thenReturn("sha256:2");
+        assertNotEquals(second, cache.key(Language.PYTHON, "print('second')", null));
+    }
+
+    @Test
+    void expiresEntries() throws InterruptedException {
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 0L);
+        String key = cache.key(Language.PYTHON, "print(1)", null);
+        cache.store(key, run("1\n", 0, false));
+        Thread.sleep(2);
+
+        assertNull(cache.lookup(key));
+    }
+
+    private static ExecutionRun run(String output, int exitCode, boolean inputUsed) {
+        OutputCapture capture = new OutputCapture(64, 64, 1024, false);
+        capture.write(bytes(output));
+        ExecutionRun run = new ExecutionRun();
+        run.setOutput(capture);
+        run.setExitCode(exitCode);
+        run.setInputUsed(inputUsed);
+        return run;
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
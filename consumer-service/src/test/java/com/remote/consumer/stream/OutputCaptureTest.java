@@ -0,0 +1,62 @@
+package com.remote.consumer.stream;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OutputCaptureTest {
+
+    @Test
+    void keepsHeadAndTailAndSpillsTheMiddle() throws IOException {
+        String output = "0123456789abcdefghijklmnopqrstuvwxyz";
+        try (OutputCapture capture = new OutputCapture(4, 6, 1024, true)) {
+            for (int i = 0; i < output.length(); i += 5) {
+                assertTrue(capture.write(bytes(output.substring(i, Math.min(output.length(), i + 5)))));
+            }
+
+            assertArrayEquals(bytes("0123"), capture.head());
+            assertArrayEquals(bytes("uvwxyz"), capture.tail());
+            assertFalse(capture.isTruncated());
+
+            ByteArrayOutputStream replay = new ByteArrayOutputStream();
+            capture.writeTo(replay);
+            assertEquals(output, replay.toString(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void dropsTheMiddleWhenSpillingIsDisabled() throws IOException {
+        try (OutputCapture capture = new OutputCapture(2, 2, 1024, false)) {
+            capture.write(bytes("abcdefgh"));
+
+            ByteArrayOutputStream replay = new ByteArrayOutputStream();
+            capture.writeTo(replay);
+            assertEquals("abgh", replay.toString(StandardCharsets.UTF_8));
+            assertTrue(capture.isTruncated());
+        }
+    }
+
+    @Test
+    void refusesOutputBeyondTheLimit() {
+        try (OutputCapture capture = new OutputCapture(4, 4, 10, true)) {
+            assertTrue(capture.write(bytes("01234567")));
+            assertFalse(capture.write(bytes("89abc")));
+            assertFalse(capture.write(bytes("d")));
+
+            assertEquals(10, capture.getTotalBytes());
+            assertTrue(capture.isLimitExceeded());
+            assertArrayEquals(bytes("6789"), capture.tail());
+        }
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
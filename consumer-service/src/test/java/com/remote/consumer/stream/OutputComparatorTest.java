@@ -0,0 +1,32 @@
+package com.remote.consumer.stream;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OutputComparatorTest {
+
+    @Test
+    void ignoresTrailingWhitespaceLineEndingsAndTrailingEmptyLines() throws IOException {
+        assertTrue(matches("1 2 \r\n3\n\n\n", "1 2\n3"));
+        assertTrue(matches("1 2\n3", "1 2\n3\n  \n"));
+        assertTrue(matches("", "\n"));
+    }
+
+    @Test
+    void rejectsDifferentOrMissingLines() throws IOException {
+        assertFalse(matches("1  2\n3\n", "1 2\n3\n"));
+        assertFalse(matches("1 2\n", "1 2\n3\n"));
+        assertFalse(matches("1 2\n3\n4\n", "1 2\n3\n"));
+        assertFalse(matches(" 3\n", "3\n"));
+    }
+
+    private boolean matches(String actual, String expected) throws IOException {
+        return OutputComparator.matches(new ByteArrayInputStream(actual.getBytes(StandardCharsets.UTF_8)), expected);
+    }
+}
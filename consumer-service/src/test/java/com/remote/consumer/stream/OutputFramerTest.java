@@ -0,0 +1,88 @@
+package com.remote.consumer.stream;
+
+import com.github.dockerjava.api.model.StreamType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OutputFramerTest {
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final List<String> chunks = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void flushesUpToTheLastNewline() {
+        OutputFramer framer = new OutputFramer(1024, 60_000, scheduler, chunks::add);
+
+        framer.append(StreamType.STDOUT, bytes("one\ntwo\nthr"));
+        framer.append(StreamType.STDOUT, bytes("ee"));
+        framer.finish();
+
+        assertEquals(List.of("one\ntwo\n", "three"), chunks);
+    }
+
+    @Test
+    void keepsMultiByteCharactersSplitAcrossFramesTogether() {
+        OutputFramer framer = new OutputFramer(4, 60_000, scheduler, chunks::add);
+        byte[] text = bytes("añ€😀");
+
+        // One byte per frame, so every character is split across frames
+        for (byte b : text) {
+            framer.append(StreamType.STDOUT, new byte[]{b});
+        }
+        framer.finish();
+
+        assertEquals("añ€😀", String.join("", chunks));
+        assertTrue(chunks.stream().noneMatch(chunk -> chunk.contains("�")));
+    }
+
+    @Test
+    void doesNotMixPartialLinesOfStdoutAndStderr() {
+        OutputFramer framer = new OutputFramer(1024, 60_000, scheduler, chunks::add);
+
+        framer.append(StreamType.STDOUT, bytes("out"));
+        framer.append(StreamType.STDERR, bytes("err\n"));
+        framer.append(StreamType.STDOUT, bytes("put\n"));
+
+        assertEquals(List.of("err\n", "output\n"), chunks);
+    }
+
+    @Test
+    void flushesPromptsWithoutNewlineAfterTheDelay() throws InterruptedException {
+        OutputFramer framer = new OutputFramer(1024, 10, scheduler, chunks::add);
+
+        framer.append(StreamType.STDOUT, bytes("Enter a number: "));
+        for (int i = 0; i < 100 && chunks.isEmpty(); i++) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(List.of("Enter a number: "), chunks);
+    }
+
+    @Test
+    void utf8BoundaryStopsBeforeAnIncompleteSequence() {
+        byte[] euro = bytes("€");
+
+        assertEquals(0, OutputFramer.utf8Boundary(euro, 2));
+        assertEquals(3, OutputFramer.utf8Boundary(euro, 3));
+        assertEquals(1, OutputFramer.utf8Boundary(Arrays.copyOf(bytes("a€"), 3), 3));
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,81 @@
+package com.remote.consumer.stream;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class SessionInputChannelTest {
+
+    @Test
+    void pausesAtTheHighWatermarkAndResumesBelowTheLowOne() throws IOException {
+        AtomicInteger resumed = new AtomicInteger();
+        SessionInputChannel channel = new SessionInputChannel(16, resumed::incrementAndGet);
+
+        assertEquals(SessionInputChannel.Offer.ACCEPTED, channel.offer(bytes("12345678")));
+        assertEquals(SessionInputChannel.Offer.PAUSED, channel.offer(bytes("1234")));
+        // Reported once per pause
+        assertEquals(SessionInputChannel.Offer.ACCEPTED, channel.offer(bytes("12")));
+
+        InputStream input = channel.inputStream();
+        input.readNBytes(8);
+        assertEquals(0, resumed.get());
+        input.readNBytes(2);
+        assertEquals(1, resumed.get());
+        assertEquals(SessionInputChannel.Offer.PAUSED, channel.offer(bytes("1234567890")));
+    }
+
+    @Test
+    void rejectsInputThatDoesNotFitAndKeepsWhatWasQueued() throws IOException {
+        AtomicInteger resumed = new AtomicInteger();
+        SessionInputChannel channel = new SessionInputChannel(8, resumed::incrementAndGet);
+
+        assertEquals(SessionInputChannel.Offer.ACCEPTED, channel.offer(bytes("abc")));
+        assertEquals(SessionInputChannel.Offer.REJECTED, channel.offer(bytes("defghi")));
+        assertEquals(3, channel.inputStream().available());
+
+        // A rejection pauses the client as well, so draining the buffer resumes it
+        assertArrayEquals(bytes("abc"), channel.inputStream().readNBytes(3));
+        assertEquals(1, resumed.get());
+    }
+
+    @Test
+    void readsBufferedInputBeforeEndOfFileAfterClose() throws IOException {
+        SessionInputChannel channel = new SessionInputChannel(16, null);
+        channel.offer(bytes("last line\n"));
+        channel.close();
+
+        assertEquals(SessionInputChannel.Offer.CLOSED, channel.offer(bytes("late")));
+        assertArrayEquals(bytes("last line\n"), channel.inputStream().readAllBytes());
+        assertEquals(-1, channel.inputStream().read());
+    }
+
+    @Test
+    void closeWakesUpABlockedReader() throws Exception {
+        SessionInputChannel channel = new SessionInputChannel(16, null);
+        CompletableFuture<Integer> read = CompletableFuture.supplyAsync(() -> {
+            try {
+                return channel.inputStream().read();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        Thread.sleep(50);
+        assertFalse(read.isDone());
+        channel.close();
+        assertEquals(-1, read.get(5, TimeUnit.SECONDS));
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,115 @@
+package com.remote.consumer.stream;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+class SessionOutboxTest {
+
+    // Runs drain tasks only when the test says so, standing in for a slow client
+    private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+    private final WebSocketSession session = mock(WebSocketSession.class);
+
+    @Test
+    void mergesOutputQueuedWhileTheClientIsBusy() throws IOException {
+        SessionOutbox outbox = new SessionOutbox("s1", session, tasks::add, 1024, 1024, 60_000);
+
+        outbox.sendText("a");
+        outbox.sendText("b");
+        outbox.sendControl("{\"type\":\"input_paused\"}");
+        outbox.sendText("c");
+        runTasks();
+
+        assertEquals(List.of("ab", "{\"type\":\"input_paused\"}", "c"), sentPayloads());
+        assertEquals(1, outbox.stats().getCoalescedChunks());
+    }
+
+    @Test
+    void timesOutputFromQueueingUntilSent() throws IOException {
+        Timer sendLatency = new SimpleMeterRegistry().timer("execution.websocket.send");
+        SessionOutbox outbox = new SessionOutbox("s1", session, tasks::add, 1024, 1024, 60_000);
+
+        outbox.sendText("a", sendLatency);
+        outbox.sendText("b");
+        outbox.sendControl("{\"type\":\"judge_result\"}");
+        runTasks();
+
+        // The untimed chunk is not merged into the timed one
+        assertEquals(List.of("a", "b", "{\"type\":\"judge_result\"}"), sentPayloads());
+        assertEquals(1, sendLatency.count());
+    }
+
+    @Test
+    void dropsPendingOutputBeyondTheLimit() throws IOException {
+        SessionOutbox outbox = new SessionOutbox("s1", session, tasks::add, 8, 1024, 60_000);
+
+        outbox.sendText("12345");
+        outbox.sendText("67890");
+        runTasks();
+
+        assertEquals(List.of("\n[5 characters of output dropped, connection too slow]\n67890"), sentPayloads());
+        assertEquals(5, outbox.stats().getDroppedChars());
+    }
+
+    @Test
+    void disconnectsSessionsThatFallTooFarBehind() throws Exception {
+        SessionOutbox outbox = new SessionOutbox("s1", session, tasks::add, 1024, 1024, 1);
+
+        outbox.sendText("a");
+        Thread.sleep(5);
+        outbox.sendText("b");
+        runTasks();
+
+        verify(session).close(CloseStatus.SESSION_NOT_RELIABLE);
+        assertEquals(0, outbox.stats().getPendingChars());
+    }
+
+    @Test
+    void disconnectsSessionsWhoseLastSendStalls() throws Exception {
+        CountDownLatch unblock = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            unblock.await();
+            return null;
+        }).when(session).sendMessage(any());
+        SessionOutbox outbox = new SessionOutbox("s1", session, command -> new Thread(command).start(), 1024, 1024, 20);
+
+        outbox.sendText("last output");
+        assertFalse(outbox.disconnectIfStalled());
+        Thread.sleep(50);
+        assertTrue(outbox.disconnectIfStalled());
+
+        verify(session, timeout(1000)).close(CloseStatus.SESSION_NOT_RELIABLE);
+        unblock.countDown();
+    }
+
+    private void runTasks() {
+        while (!tasks.isEmpty()) {
+            tasks.poll().run();
+        }
+    }
+
+    private List<String> sentPayloads() throws IOException {
+        ArgumentCaptor<TextMessage> captor = ArgumentCaptor.forClass(TextMessage.class);
+        verify(session, atLeastOnce()).sendMessage(captor.capture());
+        return captor.getAllValues().stream().map(TextMessage::getPayload).toList();
+    }
+}
@@ -0,0 +1,42 @@
+package com.remote.consumer.stream;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SessionOutputChannelTest {
+
+    private final List<String> relayed = new CopyOnWriteArrayList<>();
+
+    @Test
+    void holdsOutputUntilAnotherNodeSubscribes() {
+        SessionOutputChannel channel = new SessionOutputChannel(1024, relayed::add);
+
+        channel.send("a");
+        channel.send("b");
+        assertTrue(relayed.isEmpty());
+        assertFalse(channel.isAttached());
+
+        channel.attachRemote();
+        channel.send("c");
+
+        assertTrue(channel.isAttached());
+        assertEquals(List.of("a", "b", "c"), relayed);
+    }
+
+    @Test
+    void holdsNoMoreThanItsLimit() {
+        SessionOutputChannel channel = new SessionOutputChannel(3, relayed::add);
+
+        channel.send("ab");
+        channel.send("cd");
+        channel.attachRemote();
+
+        assertEquals(List.of("ab"), relayed);
+    }
+}
@@ -8,31 +8,67 @@ import org.springframework.amqp.core.Binding;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.MessageConverter;
-import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
 
 @Configuration
 public class RabbitMQConfig {
 
+    // binary, or json while consumers that only read the JSON message are still running
+    @Value("${submission.amqp.format:binary}")
+    private String format;
+
+    @Value("${submission.amqp.compress-threshold-bytes:4096}")
+    private int compressThreshold;
+
+    @Value("${submission.publish.threads:4}")
+    private int publishThreads;
+
+    @Value("${submission.publish.queue-capacity:10000}")
+    private int publishQueueCapacity;
+
     @Bean
     public Queue fileExecutionQueue() {
         return new Queue(Constants.FILE_EXECUTION_QUEUE);
     }
 
+    @Bean
+    public Queue executionResultQueue() {
+        return new Queue(Constants.EXECUTION_RESULT_QUEUE, true);
+    }
+
     @Bean
     public TopicExchange exchange() {
         return new TopicExchange(Constants.FILE_EXECUTION_EXCHANGE);
     }
 
     @Bean
-    public Binding binding(Queue queue, TopicExchange exchange) {
-        return BindingBuilder.bind(queue).to(exchange).with(Constants.FILE_EXECUTION_ROUTING_KEY);
+    public Binding binding(Queue fileExecutionQueue, TopicExchange exchange) {
+        return BindingBuilder.bind(fileExecutionQueue).to(exchange).with(Constants.FILE_EXECUTION_ROUTING_KEY);
     }
 
     @Bean
     public MessageConverter converter() {
-        return new Jackson2JsonMessageConverter();
+        return new SubmissionMessageConverter(!"json".equalsIgnoreCase(format), compressThreshold);
+    }
+
+    // Publishes committed submissions, so a slow broker does not hold up the single SubmissionWriter thread; when
+    // the queue is full the writer publishes itself, which slows down inserts instead of losing submissions
+    @Bean
+    public TaskExecutor submissionPublishExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(publishThreads);
+        executor.setMaxPoolSize(publishThreads);
+        executor.setQueueCapacity(publishQueueCapacity);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("SubmissionPublish-");
+        executor.initialize();
+        return executor;
     }
 
     @Bean
@@ -0,0 +1,90 @@
+package com.remote.submission.config;
+
+import com.remote.submission.model.CodeSubmission;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes a {@link CodeSubmission} either as the binary message (metadata in headers, source bytes as the body,
+ * gzipped from {@code compressThreshold} bytes on) or, while consumers that only read JSON are still running,
+ * as the original JSON message with Base64 source. Every other payload is written as JSON.
+ */
+public class SubmissionMessageConverter implements MessageConverter {
+
+    private final boolean binary;
+    private final int compressThreshold;
+    private final Jackson2JsonMessageConverter json = new Jackson2JsonMessageConverter();
+
+    public SubmissionMessageConverter(boolean binary, int compressThreshold) {
+        this.binary = binary;
+        this.compressThreshold = compressThreshold;
+    }
+
+    @Override
+    public Message toMessage(Object object, MessageProperties messageProperties) {
+        if (!(object instanceof CodeSubmission submission)) {
+            return json.toMessage(object, messageProperties);
+        }
+        byte[] source = submission.getSource() != null
+                ? submission.getSource()
+                : submission.getCodeContent().getBytes(StandardCharsets.UTF_8);
+        messageProperties.setHeader(Constants.PUBLISHED_AT_HEADER, System.currentTimeMillis());
+        // Judged submissions carry structured test cases, which only the JSON message has room for
+        if (!binary || submission.getTestCases() != null) {
+            CodeSubmission encoded = CodeSubmission.builder()
+                    .id(submission.getId())
+                    .sessionId(submission.getSessionId())
+                    .language(submission.getLanguage())
+                    .sourceHash(submission.getSourceHash())
+                    .codeContent(Base64.getEncoder().encodeToString(source))
+                    .testCases(submission.getTestCases())
+                    .caseTimeLimitMillis(submission.getCaseTimeLimitMillis())
+                    .userName(submission.getUserName())
+                    .build();
+            messageProperties.setHeader(Constants.SUBMISSION_FORMAT_HEADER, Constants.SUBMISSION_FORMAT_JSON);
+            return json.toMessage(encoded, messageProperties);
+        }
+
+        messageProperties.setHeader(Constants.SUBMISSION_FORMAT_HEADER, Constants.SUBMISSION_FORMAT_BINARY);
+        messageProperties.setHeader(Constants.SUBMISSION_ID_HEADER, submission.getId());
+        messageProperties.setHeader(Constants.SESSION_ID_HEADER, submission.getSessionId());
+        messageProperties.setHeader(Constants.LANGUAGE_HEADER, submission.getLanguage());
+        messageProperties.setHeader(Constants.SOURCE_HASH_HEADER, submission.getSourceHash());
+        messageProperties.setHeader(Constants.SOURCE_SIZE_HEADER, source.length);
+        if (submission.getUserName() != null) {
+            messageProperties.setHeader(Constants.USER_NAME_HEADER, submission.getUserName());
+        }
+        messageProperties.setContentType(MessageProperties.CONTENT_TYPE_BYTES);
+        byte[] body = source;
+        if (source.length >= compressThreshold) {
+            body = gzip(source);
+            messageProperties.setContentEncoding("gzip");
+        }
+        messageProperties.setContentLength(body.length);
+        return new Message(body, messageProperties);
+    }
+
+    @Override
+    public Object fromMessage(Message message) {
+        return json.fromMessage(message);
+    }
+
+    private static byte[] gzip(byte[] source) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(source.length / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(source);
+        } catch (IOException e) {
+            throw new MessageConversionException("Could not compress submission", e);
+        }
+        return compressed.toByteArray();
+    }
+}
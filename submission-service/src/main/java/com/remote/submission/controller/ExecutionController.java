@@ -11,11 +11,15 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api")
 public class ExecutionController {
 
+    // Set by the gateway once it has authenticated the request
+    private static final String USER_NAME = "X-User-Name";
+
     private final CodeSubmissionService codeService;
 
     @Autowired
@@ -29,15 +33,27 @@ public class ExecutionController {
     }
 
     @PostMapping("/execute/raw-code")
-    public ResponseEntity<CodeSubmission> submitCode(@RequestBody CodeSubmission codeSubmission) {
-        CodeSubmission codeSubmissionResult = codeService.handleCodeSubmission(codeSubmission);
-        return ResponseEntity.ok(codeSubmissionResult);
+    public CompletableFuture<ResponseEntity<CodeSubmission>> submitCode(
+            @RequestBody CodeSubmission codeSubmission,
+            @RequestHeader(value = USER_NAME, required = false) String userName) throws InterruptedException {
+        codeSubmission.setUserName(userName);
+        return codeService.handleCodeSubmission(codeSubmission).thenApply(ResponseEntity::ok);
+    }
+
+    @PostMapping("/execute/judge")
+    public CompletableFuture<ResponseEntity<CodeSubmission>> judgeCode(
+            @RequestBody CodeSubmission codeSubmission,
+            @RequestHeader(value = USER_NAME, required = false) String userName) throws InterruptedException {
+        codeSubmission.setUserName(userName);
+        return codeService.handleJudgeSubmission(codeSubmission).thenApply(ResponseEntity::ok);
     }
 
     @PostMapping(value = "/execute/file-code", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<CodeSubmission> submitFile(@RequestPart("metadata") String metadata,
-                                                     @RequestParam("file") MultipartFile file) throws IOException {
-        CodeSubmission codeSubmissionResult = codeService.handleFileSubmission(metadata, file);
-        return ResponseEntity.ok(codeSubmissionResult);
+    public CompletableFuture<ResponseEntity<CodeSubmission>> submitFile(
+            @RequestPart("metadata") String metadata,
+            @RequestParam("file") MultipartFile file,
+            @RequestHeader(value = USER_NAME, required = false) String userName)
+            throws IOException, InterruptedException {
+        return codeService.handleFileSubmission(metadata, file, userName).thenApply(ResponseEntity::ok);
     }
 }
\ No newline at end of file
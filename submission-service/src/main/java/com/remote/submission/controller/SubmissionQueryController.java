@@ -0,0 +1,51 @@
+package com.remote.submission.controller;
+
+import com.remote.submission.model.ExecutionResult;
+import com.remote.submission.model.SubmissionPage;
+import com.remote.submission.service.ExecutionResultService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Submission history. A session id is what lets a client read the session's output and send it input over the
+ * WebSocket, so every query is scoped to a session the caller already knows and never reveals other sessions' ids.
+ */
+@RestController
+@RequestMapping("/api/submissions")
+public class SubmissionQueryController {
+
+    private final ExecutionResultService executionResultService;
+
+    @Autowired
+    public SubmissionQueryController(ExecutionResultService executionResultService) {
+        this.executionResultService = executionResultService;
+    }
+
+    // Newest first; pass the returned nextCursor as cursor for the following page
+    @GetMapping
+    public ResponseEntity<SubmissionPage> listSubmissions(@RequestParam String sessionId,
+                                                          @RequestParam(required = false) String cursor,
+                                                          @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(executionResultService.listSubmissions(sessionId, cursor, limit));
+    }
+
+    @GetMapping("/{submissionId}/result")
+    public ResponseEntity<ExecutionResult> getResult(@PathVariable String submissionId,
+                                                     @RequestParam String sessionId) {
+        return ResponseEntity.of(executionResultService.findResult(submissionId, sessionId));
+    }
+
+    // The full output, fetched from the consumer node that ran the submission while it still keeps it
+    @GetMapping("/{submissionId}/output")
+    public ResponseEntity<Resource> getOutput(@PathVariable String submissionId, @RequestParam String sessionId) {
+        return executionResultService.openOutput(submissionId, sessionId)
+                .map(output -> ResponseEntity.ok()
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .body((Resource) new InputStreamResource(output)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -3,9 +3,11 @@ package com.remote.submission.exception;
 import lombok.Getter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
 
 import java.time.Instant;
 
@@ -33,4 +35,12 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest()
                 .body(new ErrorResponse("Invalid input", ex.getMessage()));
     }
-}
\ No newline at end of file
+
+    // 413 - Source over the configured limit
+    @ExceptionHandler({SourceTooLargeException.class, MaxUploadSizeExceededException.class})
+    public ResponseEntity<?> handleTooLarge(RuntimeException ex) {
+        log.warn("Rejected submission: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                .body(new ErrorResponse("Source too large", ex.getMessage()));
+    }
+}
@@ -0,0 +1,8 @@
+package com.remote.submission.exception;
+
+public class SourceTooLargeException extends RuntimeException {
+
+    public SourceTooLargeException(long maxBytes) {
+        super("Source code must not be larger than " + maxBytes + " bytes.");
+    }
+}
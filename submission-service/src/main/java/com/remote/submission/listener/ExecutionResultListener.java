@@ -0,0 +1,24 @@
+package com.remote.submission.listener;
+
+import com.remote.submission.config.Constants;
+import com.remote.submission.model.ExecutionResult;
+import com.remote.submission.service.ExecutionResultService;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+@Service
+public class ExecutionResultListener {
+
+    private final ExecutionResultService executionResultService;
+
+    @Autowired
+    public ExecutionResultListener(ExecutionResultService executionResultService) {
+        this.executionResultService = executionResultService;
+    }
+
+    @RabbitListener(queues = Constants.EXECUTION_RESULT_QUEUE)
+    public void receiveExecutionResult(ExecutionResult executionResult) {
+        executionResultService.record(executionResult);
+    }
+}
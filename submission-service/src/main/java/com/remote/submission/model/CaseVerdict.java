@@ -0,0 +1,21 @@
+package com.remote.submission.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Outcome of one test case of a judged submission, cases are numbered from 1
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CaseVerdict {
+    @Column(name = "case_index")
+    private int caseIndex;
+    // ACCEPTED, WRONG_ANSWER, TIME_LIMIT_EXCEEDED, OUTPUT_LIMIT_EXCEEDED, RUNTIME_ERROR, COMPILE_ERROR or NOT_RUN
+    private String verdict;
+    private Integer exitCode;
+    private long timeMillis;
+}
@@ -1,8 +1,13 @@
 package com.remote.submission.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.time.Instant;
+import java.util.List;
+
 @Entity
 @Table(name = "code_submissions")
 @Data
@@ -16,8 +21,25 @@ public class CodeSubmission {
     @Id
     private String id;
     private String sessionId;
-    @Lob
-    @Column(name = "code_content")
+    // Travels with the execution message only; the stored row references the deduplicated source blob
+    @Transient
     private String codeContent;
+    // The same source as UTF-8 bytes, when the service already has them; never part of a response
+    @Transient
+    @JsonIgnore
+    private byte[] source;
+    @Column(name = "source_hash")
+    private String sourceHash;
     private String language;
+    @Column(name = "created_at")
+    private Instant createdAt;
+    // Judge mode only, the cases travel with the execution message and are not stored
+    @Transient
+    private List<TestCase> testCases;
+    @Transient
+    private Long caseTimeLimitMillis;
+    // Set from the gateway's X-User-Name header, never from the request body; travels with the execution message
+    @Transient
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private String userName;
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.remote.submission.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.List;
+
+@Entity
+@Table(name = "execution_results")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ExecutionResult {
+    @Id
+    @Column(name = "submission_id")
+    private String submissionId;
+    private String sessionId;
+    // COMPLETED, KILLED or FAILED
+    private String status;
+    private Integer exitCode;
+    private String terminationReason;
+    private boolean compileCached;
+    // Output replayed from the consumer's result cache
+    private boolean resultCached;
+    private long queuedMillis;
+    private long setupMillis;
+    private long runMillis;
+    private long totalMillis;
+    private long outputBytes;
+    private boolean outputTruncated;
+    // URL under which the consumer node that ran the submission serves its full output
+    private String outputUri;
+    // That node's id
+    private String outputNode;
+    private Instant finishedAt;
+    // Per-case outcome of a judged submission, empty otherwise
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "case_verdicts", joinColumns = @JoinColumn(name = "submission_id"))
+    @OrderBy("caseIndex")
+    private List<CaseVerdict> verdicts;
+}
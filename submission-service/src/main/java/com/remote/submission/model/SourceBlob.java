@@ -0,0 +1,26 @@
+package com.remote.submission.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "source_blobs")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class SourceBlob {
+    @Id
+    private String hash;
+    @Lob
+    @ToString.Exclude
+    private byte[] content;
+    @Column(name = "size_bytes")
+    private int sizeBytes;
+    @Column(name = "created_at")
+    private Instant createdAt;
+    @Column(name = "last_used_at")
+    private Instant lastUsedAt;
+}
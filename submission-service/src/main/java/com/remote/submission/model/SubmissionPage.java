@@ -0,0 +1,14 @@
+package com.remote.submission.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class SubmissionPage {
+    private final List<SubmissionWithoutCodeContent> items;
+    // Pass as cursor to get the next page, null on the last page
+    private final String nextCursor;
+}
@@ -2,11 +2,21 @@ package com.remote.submission.model;
 
 import lombok.*;
 
+import java.time.Instant;
+
+// Submission metadata, also the row of the submission listing together with the outcome of its execution
 @Data
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
 public class SubmissionWithoutCodeContent {
+    private String id;
     private String sessionId;
     private String language;
+    private String sourceHash;
+    private Instant createdAt;
+    // Null while the execution has not reported back
+    private String status;
+    private Integer exitCode;
+    private Long totalMillis;
 }
@@ -0,0 +1,14 @@
+package com.remote.submission.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One stdin/expected-output pair of a judged submission
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TestCase {
+    private String input;
+    private String expectedOutput;
+}
@@ -6,6 +6,6 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import java.util.Optional;
 import java.util.UUID;
 
-public interface CodeSubmissionRepository extends JpaRepository<CodeSubmission, UUID> {
+public interface CodeSubmissionRepository extends JpaRepository<CodeSubmission, UUID>, SubmissionSummaries {
     Optional<CodeSubmission> findById(String id);
 }
@@ -0,0 +1,7 @@
+package com.remote.submission.repository;
+
+import com.remote.submission.model.ExecutionResult;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ExecutionResultRepository extends JpaRepository<ExecutionResult, String> {
+}
@@ -0,0 +1,10 @@
+package com.remote.submission.repository;
+
+import java.io.InputStream;
+import java.time.Instant;
+
+public interface SourceBlobInserter {
+
+    // Plain insert streaming the content; save() would merge, i.e. select the row first, and need it on the heap
+    void insert(String hash, InputStream content, long size, Instant now);
+}
@@ -0,0 +1,30 @@
+package com.remote.submission.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.InputStream;
+import java.sql.Timestamp;
+import java.time.Instant;
+
+class SourceBlobInserterImpl implements SourceBlobInserter {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    SourceBlobInserterImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void insert(String hash, InputStream content, long size, Instant now) {
+        jdbcTemplate.update("INSERT INTO source_blobs (hash, content, size_bytes, created_at, last_used_at) "
+                + "VALUES (?, ?, ?, ?, ?)", statement -> {
+            statement.setString(1, hash);
+            statement.setBinaryStream(2, content, size);
+            statement.setLong(3, size);
+            statement.setTimestamp(4, Timestamp.from(now));
+            statement.setTimestamp(5, Timestamp.from(now));
+        });
+    }
+}
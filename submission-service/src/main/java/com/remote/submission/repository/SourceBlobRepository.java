@@ -0,0 +1,28 @@
+package com.remote.submission.repository;
+
+import com.remote.submission.model.SourceBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface SourceBlobRepository extends JpaRepository<SourceBlob, String>, SourceBlobInserter {
+
+    @Query("select b.lastUsedAt from SourceBlob b where b.hash = :hash")
+    Optional<Instant> findLastUsedAt(@Param("hash") String hash);
+
+    @Modifying
+    @Transactional
+    @Query("update SourceBlob b set b.lastUsedAt = :now where b.hash = :hash")
+    int touch(@Param("hash") String hash, @Param("now") Instant now);
+
+    @Modifying
+    @Transactional
+    @Query("delete from SourceBlob b where b.lastUsedAt < :cutoff "
+            + "and not exists (select 1 from CodeSubmission s where s.sourceHash = b.hash)")
+    int deleteUnreferencedUnusedSince(@Param("cutoff") Instant cutoff);
+}
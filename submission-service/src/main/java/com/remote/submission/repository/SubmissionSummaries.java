@@ -0,0 +1,13 @@
+package com.remote.submission.repository;
+
+import com.remote.submission.model.SubmissionWithoutCodeContent;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface SubmissionSummaries {
+
+    // The session's submissions newest first, strictly older than (beforeCreatedAt, beforeId) if given
+    List<SubmissionWithoutCodeContent> findSummaries(String sessionId, Instant beforeCreatedAt, String beforeId,
+                                                     int limit);
+}
@@ -0,0 +1,59 @@
+package com.remote.submission.repository;
+
+import com.remote.submission.model.SubmissionWithoutCodeContent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Keyset-paginated listing that only reads the columns it returns: the page starts right after the last row of
+ * the previous one, seeking in the (created_at, id) index instead of skipping rows with an offset.
+ */
+class SubmissionSummariesImpl implements SubmissionSummaries {
+
+    private static final RowMapper<SubmissionWithoutCodeContent> SUMMARY = (rs, rowNum) -> {
+        Number exitCode = (Number) rs.getObject("exit_code");
+        Number totalMillis = (Number) rs.getObject("total_millis");
+        return SubmissionWithoutCodeContent.builder()
+                .id(rs.getString("id"))
+                .sessionId(rs.getString("session_id"))
+                .language(rs.getString("language"))
+                .sourceHash(rs.getString("source_hash"))
+                .createdAt(rs.getTimestamp("created_at").toInstant())
+                .status(rs.getString("status"))
+                .exitCode(exitCode != null ? exitCode.intValue() : null)
+                .totalMillis(totalMillis != null ? totalMillis.longValue() : null)
+                .build();
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    SubmissionSummariesImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<SubmissionWithoutCodeContent> findSummaries(String sessionId, Instant beforeCreatedAt,
+                                                            String beforeId, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT s.id, s.session_id, s.language, s.source_hash, s.created_at, "
+                + "r.status, r.exit_code, r.total_millis FROM code_submissions s "
+                + "LEFT JOIN execution_results r ON r.submission_id = s.id WHERE s.session_id = ?");
+        List<Object> args = new ArrayList<>();
+        args.add(sessionId);
+        if (beforeCreatedAt != null) {
+            sql.append(" AND (s.created_at, s.id) < (?, ?)");
+            args.add(Timestamp.from(beforeCreatedAt));
+            args.add(UUID.fromString(beforeId));
+        }
+        sql.append(" ORDER BY s.created_at DESC, s.id DESC LIMIT ?");
+        args.add(limit);
+        return jdbcTemplate.query(sql.toString(), SUMMARY, args.toArray());
+    }
+}
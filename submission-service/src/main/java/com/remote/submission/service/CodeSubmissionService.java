@@ -2,57 +2,165 @@ package com.remote.submission.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.remote.submission.config.Constants;
+import com.remote.submission.exception.SourceTooLargeException;
 import com.remote.submission.model.CodeSubmission;
 import com.remote.submission.model.SubmissionWithoutCodeContent;
-import com.remote.submission.repository.CodeSubmissionRepository;
+import com.remote.submission.model.TestCase;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.Arrays;
-import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class CodeSubmissionService {
 
-    private final CodeSubmissionRepository codeSubmissionRepository;
+    private final SubmissionWriter submissionWriter;
+    private final SourceBlobService sourceBlobService;
     private final RabbitTemplate rabbitTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final TaskExecutor submissionPublishExecutor;
+
+    @Value("${submission.source.max-bytes:1048576}")
+    private long maxSourceBytes;
+
+    @Value("${submission.judge.max-cases:100}")
+    private int maxJudgeCases;
+
+    @Value("${submission.judge.max-case-bytes:4194304}")
+    private long maxJudgeCaseBytes;
+
+    // Metrics are tagged with these languages only, anything else a client sends is counted as "other"
+    @Value("${submission.metrics.languages:python,java,javascript,c,cpp}")
+    private Set<String> metricLanguages;
 
     @Autowired
-    public CodeSubmissionService(CodeSubmissionRepository codeSubmissionRepository, RabbitTemplate rabbitTemplate) {
-        this.codeSubmissionRepository = codeSubmissionRepository;
+    public CodeSubmissionService(SubmissionWriter submissionWriter,
+                                 SourceBlobService sourceBlobService, RabbitTemplate rabbitTemplate,
+                                 ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                                 @Qualifier("submissionPublishExecutor") TaskExecutor submissionPublishExecutor) {
+        this.submissionWriter = submissionWriter;
+        this.sourceBlobService = sourceBlobService;
         this.rabbitTemplate = rabbitTemplate;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.submissionPublishExecutor = submissionPublishExecutor;
     }
 
     public String generateSessionId() {
         return UUID.randomUUID().toString();
     }
 
-    public CodeSubmission handleCodeSubmission(CodeSubmission codeSubmission) {
-        codeSubmission.setId(UUID.randomUUID().toString());
-        if (codeSubmission.getSessionId() == null) {
-            throw new IllegalArgumentException("Session id must be provided to execute code.");
+    public CompletableFuture<CodeSubmission> handleCodeSubmission(CodeSubmission codeSubmission)
+            throws InterruptedException {
+        prepare(codeSubmission);
+        if (codeSubmission.getCodeContent() == null) {
+            throw new IllegalArgumentException("Code content must be provided to execute code.");
+        }
+        // Test cases sent to any endpoint are judged, so their limits are checked here
+        if (codeSubmission.getTestCases() != null) {
+            validateTestCases(codeSubmission.getTestCases());
         }
-        codeSubmission.setCodeContent(Base64.getEncoder().encodeToString(codeSubmission.getCodeContent().getBytes()));
-        codeSubmissionRepository.save(codeSubmission);
-        rabbitTemplate.convertAndSend(Constants.FILE_EXECUTION_EXCHANGE, Constants.FILE_EXECUTION_ROUTING_KEY,
-                codeSubmission);
-        return codeSubmission;
+        byte[] source = codeSubmission.getCodeContent().getBytes(StandardCharsets.UTF_8);
+        if (source.length > maxSourceBytes) {
+            throw new SourceTooLargeException(maxSourceBytes);
+        }
+        codeSubmission.setSourceHash(sourceBlobService.store(source));
+        codeSubmission.setSource(source);
+        return persistAndPublish(codeSubmission);
     }
 
-    public CodeSubmission handleFileSubmission(String metadataJson, MultipartFile file) throws IOException {
-        ObjectMapper mapper = new ObjectMapper();
-        SubmissionWithoutCodeContent metadata = mapper.readValue(metadataJson, SubmissionWithoutCodeContent.class);
+    // One source judged against all of its test cases in a single execution
+    public CompletableFuture<CodeSubmission> handleJudgeSubmission(CodeSubmission codeSubmission)
+            throws InterruptedException {
+        List<TestCase> testCases = codeSubmission.getTestCases();
+        if (testCases == null || testCases.isEmpty()) {
+            throw new IllegalArgumentException("Test cases must be provided to judge code.");
+        }
+        return handleCodeSubmission(codeSubmission);
+    }
 
-        String codeContent = new String(file.getBytes());
+    public CompletableFuture<CodeSubmission> handleFileSubmission(String metadataJson, MultipartFile file,
+                                                                  String userName)
+            throws IOException, InterruptedException {
+        SubmissionWithoutCodeContent metadata = objectMapper.readValue(metadataJson, SubmissionWithoutCodeContent.class);
         CodeSubmission request = new CodeSubmission();
         request.setLanguage(metadata.getLanguage());
         request.setSessionId(metadata.getSessionId());
-        request.setCodeContent(codeContent);
-        return handleCodeSubmission(request);
+        request.setUserName(userName);
+        prepare(request);
+        if (file.getSize() > maxSourceBytes) {
+            throw new SourceTooLargeException(maxSourceBytes);
+        }
+
+        // The multipart file is already on disk; it is hashed and stored from there and read once for the message,
+        // whose body are these bytes as they are. The response does not echo the source.
+        SourceUpload upload = SourceUpload.of(file, maxSourceBytes);
+        sourceBlobService.store(upload);
+        request.setSourceHash(upload.getHash());
+        request.setSource(upload.readBytes());
+        return persistAndPublish(request);
+    }
+
+    private void validateTestCases(List<TestCase> testCases) {
+        if (testCases.size() > maxJudgeCases) {
+            throw new IllegalArgumentException("At most " + maxJudgeCases + " test cases can be judged at once.");
+        }
+        long caseBytes = 0;
+        for (TestCase testCase : testCases) {
+            caseBytes += length(testCase.getInput()) + length(testCase.getExpectedOutput());
+        }
+        if (caseBytes > maxJudgeCaseBytes) {
+            throw new IllegalArgumentException("Test cases must not exceed " + maxJudgeCaseBytes + " bytes in total.");
+        }
+    }
+
+    private static long length(String text) {
+        return text != null ? text.getBytes(StandardCharsets.UTF_8).length : 0;
+    }
+
+    private void prepare(CodeSubmission codeSubmission) {
+        codeSubmission.setId(UUID.randomUUID().toString());
+        codeSubmission.setCreatedAt(Instant.now());
+        if (codeSubmission.getSessionId() == null) {
+            throw new IllegalArgumentException("Session id must be provided to execute code.");
+        }
+    }
+
+    // Published only once the row is committed: a failed insert fails the request and nothing is executed,
+    // a failed publish leaves a stored submission that was never executed, as a synchronous save would
+    private CompletableFuture<CodeSubmission> persistAndPublish(CodeSubmission codeSubmission)
+            throws InterruptedException {
+        Timer.Sample persist = Timer.start(meterRegistry);
+        return submissionWriter.write(codeSubmission).thenApplyAsync(stored -> {
+            String language = languageTag(stored.getLanguage());
+            persist.stop(meterRegistry.timer("submission.persist", "language", language));
+            Timer.Sample publish = Timer.start(meterRegistry);
+            rabbitTemplate.convertAndSend(Constants.FILE_EXECUTION_EXCHANGE, Constants.FILE_EXECUTION_ROUTING_KEY,
+                    stored);
+            publish.stop(meterRegistry.timer("submission.publish", "language", language));
+            return stored;
+        }, submissionPublishExecutor);
+    }
+
+    private String languageTag(String language) {
+        String tag = language != null ? language.toLowerCase(Locale.ROOT) : "";
+        return metricLanguages.contains(tag) ? tag : "other";
     }
 }
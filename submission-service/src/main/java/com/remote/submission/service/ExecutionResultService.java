@@ -0,0 +1,133 @@
+package com.remote.submission.service;
+
+import com.remote.submission.model.ExecutionResult;
+import com.remote.submission.model.SubmissionPage;
+import com.remote.submission.model.SubmissionWithoutCodeContent;
+import com.remote.submission.repository.CodeSubmissionRepository;
+import com.remote.submission.repository.ExecutionResultRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Service
+public class ExecutionResultService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExecutionResultService.class);
+
+    private final ExecutionResultRepository executionResultRepository;
+    private final CodeSubmissionRepository codeSubmissionRepository;
+    private final RestClient outputClient;
+
+    @Value("${submission.query.max-page-size:200}")
+    private int maxPageSize;
+
+    @Autowired
+    public ExecutionResultService(ExecutionResultRepository executionResultRepository,
+                                  CodeSubmissionRepository codeSubmissionRepository,
+                                  RestClient.Builder restClientBuilder,
+                                  @Value("${submission.output.fetch-timeout-ms:10000}") int fetchTimeoutMillis) {
+        this.executionResultRepository = executionResultRepository;
+        this.codeSubmissionRepository = codeSubmissionRepository;
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(fetchTimeoutMillis);
+        requestFactory.setReadTimeout(fetchTimeoutMillis);
+        this.outputClient = restClientBuilder.requestFactory(requestFactory).build();
+    }
+
+    // Results are keyed by submission, so a redelivered result overwrites the first copy
+    public void record(ExecutionResult result) {
+        executionResultRepository.save(result);
+        log.info("Submission {} finished as {} with exit code {} in {} ms", result.getSubmissionId(),
+                result.getStatus(), result.getExitCode(), result.getTotalMillis());
+    }
+
+    // Empty unless the submission belongs to the session, so ids of other sessions' submissions reveal nothing
+    public Optional<ExecutionResult> findResult(String submissionId, String sessionId) {
+        try {
+            UUID.fromString(submissionId);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Submission id must be a UUID.");
+        }
+        return executionResultRepository.findById(submissionId)
+                .filter(result -> result.getSessionId().equals(sessionId));
+    }
+
+    // Streams the full output from the consumer node that stored it; empty if it has expired or the node is gone.
+    // The caller closes the stream
+    public Optional<InputStream> openOutput(String submissionId, String sessionId) {
+        String outputUri = findResult(submissionId, sessionId).map(ExecutionResult::getOutputUri).orElse(null);
+        // Results from before outputs were served over HTTP point at a file on the consumer
+        if (outputUri == null || !outputUri.startsWith("http")) {
+            return Optional.empty();
+        }
+        try {
+            return outputClient.get().uri(URI.create(outputUri)).exchange((request, response) -> {
+                if (!response.getStatusCode().is2xxSuccessful()) {
+                    response.close();
+                    return Optional.empty();
+                }
+                return Optional.of(response.getBody());
+            }, false);
+        } catch (RestClientException e) {
+            log.warn("Could not fetch the output of submission {} from {}: {}", submissionId, outputUri,
+                    e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    public SubmissionPage listSubmissions(String sessionId, String cursor, int limit) {
+        if (sessionId == null || sessionId.isEmpty()) {
+            throw new IllegalArgumentException("Session id must be provided to list submissions.");
+        }
+        if (limit < 1 || limit > maxPageSize) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + maxPageSize + ".");
+        }
+        Instant beforeCreatedAt = null;
+        String beforeId = null;
+        if (cursor != null) {
+            String[] position = decodeCursor(cursor);
+            beforeCreatedAt = Instant.parse(position[0]);
+            beforeId = position[1];
+        }
+        // One extra row tells whether there is a next page
+        List<SubmissionWithoutCodeContent> rows = codeSubmissionRepository.findSummaries(sessionId, beforeCreatedAt,
+                beforeId, limit + 1);
+        if (rows.size() <= limit) {
+            return new SubmissionPage(rows, null);
+        }
+        List<SubmissionWithoutCodeContent> items = rows.subList(0, limit);
+        SubmissionWithoutCodeContent last = items.get(limit - 1);
+        return new SubmissionPage(items, encodeCursor(last.getCreatedAt(), last.getId()));
+    }
+
+    private static String encodeCursor(Instant createdAt, String id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((createdAt + "|" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            Instant.parse(position[0]);
+            UUID.fromString(position[1]);
+            return position;
+        } catch (IllegalArgumentException | DateTimeParseException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor.");
+        }
+    }
+}
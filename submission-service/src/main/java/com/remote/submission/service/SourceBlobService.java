@@ -0,0 +1,127 @@
+package com.remote.submission.service;
+
+import com.remote.submission.repository.SourceBlobRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Content-addressed store for submitted source: each distinct source is kept once, keyed by its SHA-256, and
+ * submissions reference it by hash. A repeated submission costs one primary-key lookup and no write.
+ * <p>
+ * Blobs no submission references any more are deleted by a periodic sweep once they have not been used for
+ * {@code gracePeriod}. The grace period covers the window between storing a blob and committing the submission
+ * that references it; reuse of a blob refreshes its {@code last_used_at} at most every half grace period, so a
+ * blob that is about to be referenced is never old enough to be swept.
+ */
+@Service
+public class SourceBlobService {
+
+    private static final Logger log = LoggerFactory.getLogger(SourceBlobService.class);
+
+    private final SourceBlobRepository sourceBlobRepository;
+
+    private final ScheduledExecutorService collector = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "SourceBlobGc");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${submission.source-blobs.gc-grace-minutes:60}")
+    private long gracePeriodMinutes;
+
+    @Value("${submission.source-blobs.gc-interval-minutes:15}")
+    private long gcIntervalMinutes;
+
+    @Autowired
+    public SourceBlobService(SourceBlobRepository sourceBlobRepository) {
+        this.sourceBlobRepository = sourceBlobRepository;
+    }
+
+    @PostConstruct
+    public void init() {
+        collector.scheduleWithFixedDelay(this::collectSafely, gcIntervalMinutes, gcIntervalMinutes, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void stop() {
+        collector.shutdownNow();
+    }
+
+    public static String hash(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    // Stores the content unless an identical blob exists and returns its hash
+    public String store(byte[] content) {
+        String hash = hash(content);
+        store(hash, content.length, () -> new ByteArrayInputStream(content));
+        return hash;
+    }
+
+    // Streams the upload into the blob, without reading it onto the heap, unless an identical blob exists
+    public void store(SourceUpload upload) throws IOException {
+        try (InputStream in = upload.open()) {
+            store(upload.getHash(), upload.getSize(), () -> in);
+        }
+    }
+
+    private void store(String hash, long size, Supplier<InputStream> content) {
+        Instant now = Instant.now();
+        Optional<Instant> lastUsedAt = sourceBlobRepository.findLastUsedAt(hash);
+        if (lastUsedAt.isPresent()) {
+            Duration gracePeriod = Duration.ofMinutes(gracePeriodMinutes);
+            if (lastUsedAt.get().isAfter(now.minus(gracePeriod.dividedBy(2)))
+                    || sourceBlobRepository.touch(hash, now) > 0) {
+                return;
+            }
+            // Swept between the lookup and the touch, store it again
+        }
+        try {
+            sourceBlobRepository.insert(hash, content.get(), size, now);
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent submission of the same source stored it first
+            log.debug("Source blob {} already stored", hash);
+        }
+    }
+
+    public int collectGarbage() {
+        int deleted = sourceBlobRepository.deleteUnreferencedUnusedSince(
+                Instant.now().minus(Duration.ofMinutes(gracePeriodMinutes)));
+        if (deleted > 0) {
+            log.info("Deleted {} unreferenced source blobs", deleted);
+        }
+        return deleted;
+    }
+
+    private void collectSafely() {
+        try {
+            collectGarbage();
+        } catch (Exception e) {
+            log.error("Source blob garbage collection failed", e);
+        }
+    }
+}
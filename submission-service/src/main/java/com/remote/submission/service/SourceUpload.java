@@ -0,0 +1,77 @@
+package com.remote.submission.service;
+
+import com.remote.submission.exception.SourceTooLargeException;
+import org.springframework.core.io.InputStreamSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Uploaded source, read straight from the multipart part the servlet container has already written to disk
+ * ({@code spring.servlet.multipart.file-size-threshold=0}), so the upload is never spooled a second time. The
+ * part is hashed in one pass of fixed-size chunks and reading stops as soon as it exceeds the size limit;
+ * storing it streams the part again, so the heap holds no more than one chunk of it until the execution message
+ * is built.
+ */
+public final class SourceUpload {
+
+    private static final int CHUNK_BYTES = 8192;
+
+    private final InputStreamSource part;
+    private final String hash;
+    private final long size;
+
+    private SourceUpload(InputStreamSource part, String hash, long size) {
+        this.part = part;
+        this.hash = hash;
+        this.size = size;
+    }
+
+    public static SourceUpload of(InputStreamSource part, long maxBytes) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        try (InputStream in = part.getInputStream()) {
+            byte[] chunk = new byte[CHUNK_BYTES];
+            long size = 0;
+            int read;
+            while ((read = in.read(chunk)) != -1) {
+                size += read;
+                if (size > maxBytes) {
+                    throw new SourceTooLargeException(maxBytes);
+                }
+                digest.update(chunk, 0, read);
+            }
+            return new SourceUpload(part, HexFormat.of().formatHex(digest.digest()), size);
+        }
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public InputStream open() throws IOException {
+        return part.getInputStream();
+    }
+
+    // The one place the source is read onto the heap, as the body of the execution message
+    public byte[] readBytes() throws IOException {
+        try (InputStream in = open()) {
+            byte[] source = in.readNBytes((int) size);
+            if (source.length != size || in.read() != -1) {
+                throw new IOException("Upload changed after it was hashed");
+            }
+            return source;
+        }
+    }
+}
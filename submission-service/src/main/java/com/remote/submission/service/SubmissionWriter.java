@@ -0,0 +1,155 @@
+package com.remote.submission.service;
+
+import com.remote.submission.model.CodeSubmission;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind stage for submission rows. Submissions are queued and a single writer thread inserts them with
+ * one JDBC batch and one commit per flush; a flush happens once {@code flushSize} rows are queued or
+ * {@code flushIntervalMillis} after the first row of the batch arrived, whichever comes first.
+ * <p>
+ * {@link #write} completes only once the row is committed and fails if it could not be, so a caller that
+ * publishes on completion never publishes a submission that is not stored. A batch that fails is retried row
+ * by row, so one bad row does not fail the others. The queue is bounded and callers block while it is full.
+ */
+@Service
+public class SubmissionWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(SubmissionWriter.class);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO code_submissions (id, session_id, source_hash, language, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private BlockingQueue<PendingRow> queue;
+    private Thread writer;
+    private volatile boolean running = true;
+
+    @Value("${submission.write-behind.flush-size:100}")
+    private int flushSize;
+
+    @Value("${submission.write-behind.flush-interval-ms:5}")
+    private long flushIntervalMillis;
+
+    @Value("${submission.write-behind.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Autowired
+    public SubmissionWriter(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @PostConstruct
+    public void start() {
+        queue = new LinkedBlockingQueue<>(queueCapacity);
+        writer = new Thread(this::run, "SubmissionWriter");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // Writes what is still queued before the data source goes away
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    public CompletableFuture<CodeSubmission> write(CodeSubmission codeSubmission) throws InterruptedException {
+        if (!running) {
+            throw new IllegalStateException("Submission writer is stopped");
+        }
+        PendingRow row = new PendingRow(codeSubmission, new CompletableFuture<>());
+        queue.put(row);
+        // The writer may have finished its last drain between the check and the put, nothing would complete the row
+        if (!running && queue.remove(row)) {
+            row.committed().completeExceptionally(new IllegalStateException("Submission writer is stopped"));
+        }
+        return row.committed();
+    }
+
+    private void run() {
+        List<PendingRow> batch = new ArrayList<>(flushSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingRow first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+                while (batch.size() < flushSize) {
+                    PendingRow next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+        PendingRow row;
+        while ((row = queue.poll()) != null) {
+            row.committed().completeExceptionally(new IllegalStateException("Submission writer is stopped"));
+        }
+    }
+
+    private void flush(List<PendingRow> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(),
+                    (statement, row) -> {
+                        statement.setObject(1, UUID.fromString(row.submission().getId()));
+                        statement.setString(2, row.submission().getSessionId());
+                        statement.setString(3, row.submission().getSourceHash());
+                        statement.setString(4, row.submission().getLanguage());
+                        statement.setTimestamp(5, Timestamp.from(row.submission().getCreatedAt()));
+                    }));
+        } catch (DataAccessException e) {
+            log.warn("Batch of {} submissions failed, inserting them one by one: {}", batch.size(), e.getMessage());
+            batch.forEach(this::insertOne);
+            return;
+        }
+        batch.forEach(row -> row.committed().complete(row.submission()));
+    }
+
+    private void insertOne(PendingRow row) {
+        try {
+            jdbcTemplate.update(INSERT_SQL, UUID.fromString(row.submission().getId()), row.submission().getSessionId(),
+                    row.submission().getSourceHash(), row.submission().getLanguage(),
+                    Timestamp.from(row.submission().getCreatedAt()));
+            row.committed().complete(row.submission());
+        } catch (DataAccessException e) {
+            log.error("Could not store submission {}", row.submission().getId(), e);
+            row.committed().completeExceptionally(e);
+        }
+    }
+
+    private record PendingRow(CodeSubmission submission, CompletableFuture<CodeSubmission> committed) {
+    }
+}
@@ -1,6 +1,51 @@
+-- Submitted source, stored once per distinct content and addressed by its SHA-256
+CREATE TABLE IF NOT EXISTS source_blobs (
+    hash CHAR(64) PRIMARY KEY,
+    content BLOB NOT NULL,
+    size_bytes INT NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    last_used_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
 CREATE TABLE IF NOT EXISTS code_submissions (
     id UUID PRIMARY KEY,
     session_id VARCHAR(255) NOT NULL,
-    code_content TEXT NOT NULL,
-    language VARCHAR(50) NOT NULL
-);
\ No newline at end of file
+    source_hash CHAR(64) NOT NULL REFERENCES source_blobs (hash),
+    language VARCHAR(50) NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_code_submissions_source_hash ON code_submissions (source_hash);
+-- Keyset pagination, newest first, per session
+CREATE INDEX IF NOT EXISTS idx_code_submissions_session_created ON code_submissions (session_id, created_at DESC, id DESC);
+
+-- Outcome of a submission's execution, reported by the consumer service; the output itself stays on the consumer
+-- node output_node, which serves it at output_uri
+CREATE TABLE IF NOT EXISTS execution_results (
+    submission_id UUID PRIMARY KEY,
+    session_id VARCHAR(255) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    exit_code INT,
+    termination_reason VARCHAR(1024),
+    compile_cached BOOLEAN NOT NULL,
+    result_cached BOOLEAN NOT NULL,
+    queued_millis BIGINT NOT NULL,
+    setup_millis BIGINT NOT NULL,
+    run_millis BIGINT NOT NULL,
+    total_millis BIGINT NOT NULL,
+    output_bytes BIGINT NOT NULL,
+    output_truncated BOOLEAN NOT NULL,
+    output_uri VARCHAR(1024),
+    output_node VARCHAR(255),
+    finished_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+-- Per-case outcome of judged submissions
+CREATE TABLE IF NOT EXISTS case_verdicts (
+    submission_id UUID NOT NULL REFERENCES execution_results (submission_id) ON DELETE CASCADE,
+    case_index INT NOT NULL,
+    verdict VARCHAR(32) NOT NULL,
+    exit_code INT,
+    time_millis BIGINT NOT NULL,
+    PRIMARY KEY (submission_id, case_index)
+);
@@ -0,0 +1,102 @@
+package com.remote.submission.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.remote.submission.model.CodeSubmission;
+import com.remote.submission.model.TestCase;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SubmissionMessageConverterTest {
+
+    @Test
+    void sendsSmallSourcesUncompressed() {
+        Message message = new SubmissionMessageConverter(true, 1024)
+                .toMessage(submission("print(1)"), new MessageProperties());
+
+        MessageProperties properties = message.getMessageProperties();
+        assertEquals(Constants.SUBMISSION_FORMAT_BINARY, (int) properties.getHeader(Constants.SUBMISSION_FORMAT_HEADER));
+        assertEquals("session-1", properties.getHeader(Constants.SESSION_ID_HEADER));
+        assertEquals("python", properties.getHeader(Constants.LANGUAGE_HEADER));
+        assertEquals("alice", properties.getHeader(Constants.USER_NAME_HEADER));
+        assertNull(properties.getContentEncoding());
+        assertArrayEquals("print(1)".getBytes(StandardCharsets.UTF_8), message.getBody());
+    }
+
+    @Test
+    void sendsUploadedBytesAsTheBodyWithoutEchoingThem() throws Exception {
+        byte[] source = "print('hé')".getBytes(StandardCharsets.UTF_8);
+        CodeSubmission uploaded = CodeSubmission.builder().id("id-1").sessionId("session-1").language("python")
+                .source(source).build();
+
+        Message message = new SubmissionMessageConverter(true, 1024).toMessage(uploaded, new MessageProperties());
+
+        assertArrayEquals(source, message.getBody());
+        assertFalse(new ObjectMapper().writeValueAsString(uploaded).contains("print"));
+    }
+
+    @Test
+    void compressesSourcesFromTheThresholdOn() throws IOException {
+        String source = "print('hello')\n".repeat(200);
+        Message message = new SubmissionMessageConverter(true, 1024)
+                .toMessage(submission(source), new MessageProperties());
+
+        assertEquals("gzip", message.getMessageProperties().getContentEncoding());
+        assertTrue(message.getBody().length < source.length());
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(message.getBody()))) {
+            assertEquals(source, new String(gzip.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void keepsTheJsonMessageForOlderConsumers() {
+        Message message = new SubmissionMessageConverter(false, 1024)
+                .toMessage(submission("print(1)"), new MessageProperties());
+
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        assertTrue(body.contains("\"codeContent\":\"cHJpbnQoMSk=\""), body);
+    }
+
+    @Test
+    void sendsJudgedSubmissionsAsJson() {
+        CodeSubmission judged = submission("print(input())");
+        judged.setTestCases(List.of(new TestCase("1\n", "1\n")));
+        Message message = new SubmissionMessageConverter(true, 1024).toMessage(judged, new MessageProperties());
+
+        assertEquals(Constants.SUBMISSION_FORMAT_JSON, (int) message.getMessageProperties()
+                .getHeader(Constants.SUBMISSION_FORMAT_HEADER));
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        assertTrue(body.contains("\"testCases\":[{\"input\":\"1\\n\",\"expectedOutput\":\"1\\n\"}]"), body);
+        assertTrue(body.contains("\"userName\":\"alice\""), body);
+    }
+
+    @Test
+    void takesTheUserOnlyFromTheGatewayHeader() throws Exception {
+        CodeSubmission request = new ObjectMapper().readValue("{\"sessionId\":\"s\",\"userName\":\"mallory\"}",
+                CodeSubmission.class);
+
+        assertNull(request.getUserName());
+    }
+
+    private static CodeSubmission submission(String source) {
+        return CodeSubmission.builder()
+                .id("id-1")
+                .sessionId("session-1")
+                .language("python")
+                .codeContent(source)
+                .userName("alice")
+                .build();
+    }
+}
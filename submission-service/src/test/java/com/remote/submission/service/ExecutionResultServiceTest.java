@@ -0,0 +1,172 @@
+package com.remote.submission.service;
+
+import com.remote.submission.model.CodeSubmission;
+import com.remote.submission.model.ExecutionResult;
+import com.remote.submission.model.SubmissionPage;
+import com.remote.submission.model.SubmissionWithoutCodeContent;
+import com.remote.submission.repository.CodeSubmissionRepository;
+import com.remote.submission.repository.ExecutionResultRepository;
+import com.remote.submission.repository.SourceBlobRepository;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class ExecutionResultServiceTest {
+
+    @Autowired
+    private ExecutionResultService executionResultService;
+
+    @Autowired
+    private SubmissionWriter submissionWriter;
+
+    @Autowired
+    private SourceBlobService sourceBlobService;
+
+    @Autowired
+    private CodeSubmissionRepository codeSubmissionRepository;
+
+    @Autowired
+    private ExecutionResultRepository executionResultRepository;
+
+    @Autowired
+    private SourceBlobRepository sourceBlobRepository;
+
+    @BeforeEach
+    void clear() {
+        executionResultRepository.deleteAll();
+        codeSubmissionRepository.deleteAll();
+        sourceBlobRepository.deleteAll();
+    }
+
+    @Test
+    void pagesThroughSubmissionsNewestFirst() throws Exception {
+        List<String> ids = storeSubmissions("session", 5);
+        storeSubmissions("other-session", 2);
+
+        List<String> listed = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            SubmissionPage page = executionResultService.listSubmissions("session", cursor, 2);
+            page.getItems().forEach(item -> listed.add(item.getId()));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(ids.reversed(), listed);
+    }
+
+    @Test
+    void listsTheOutcomeOfFinishedExecutions() throws Exception {
+        String id = storeSubmissions("session", 1).getFirst();
+        executionResultService.record(ExecutionResult.builder()
+                .submissionId(id)
+                .sessionId("session")
+                .status("COMPLETED")
+                .exitCode(3)
+                .totalMillis(120)
+                .outputUri("http://consumer-1:8081/outputs/" + id)
+                .finishedAt(Instant.now())
+                .build());
+
+        SubmissionWithoutCodeContent summary = executionResultService.listSubmissions("session", null, 10)
+                .getItems().getFirst();
+
+        assertEquals("COMPLETED", summary.getStatus());
+        assertEquals(3, summary.getExitCode());
+        assertEquals(120L, summary.getTotalMillis());
+        assertEquals("http://consumer-1:8081/outputs/" + id,
+                executionResultService.findResult(id, "session").orElseThrow().getOutputUri());
+        assertTrue(executionResultService.findResult(id, "other-session").isEmpty());
+    }
+
+    @Test
+    void fetchesTheOutputFromTheNodeThatStoredIt() throws Exception {
+        HttpServer node = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        node.createContext("/outputs/", exchange -> {
+            byte[] body = "hello\n".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        node.createContext("/outputs/expired", exchange -> {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+        });
+        node.start();
+        try {
+            List<String> ids = storeSubmissions("session", 2);
+            String nodeUrl = "http://localhost:" + node.getAddress().getPort();
+            recordOutput(ids.get(0), nodeUrl + "/outputs/" + ids.get(0));
+            recordOutput(ids.get(1), nodeUrl + "/outputs/expired");
+
+            try (InputStream output = executionResultService.openOutput(ids.get(0), "session").orElseThrow()) {
+                assertEquals("hello\n", new String(output.readAllBytes(), StandardCharsets.UTF_8));
+            }
+            assertTrue(executionResultService.openOutput(ids.get(0), "other-session").isEmpty());
+            assertTrue(executionResultService.openOutput(ids.get(1), "session").isEmpty());
+        } finally {
+            node.stop(0);
+        }
+    }
+
+    @Test
+    void rejectsForgedCursors() {
+        assertThrows(IllegalArgumentException.class,
+                () -> executionResultService.listSubmissions("session", "bm90IGEgY3Vyc29y", 10));
+        assertNull(executionResultService.listSubmissions("session", null, 10).getNextCursor());
+    }
+
+    @Test
+    void requiresASessionToList() {
+        assertThrows(IllegalArgumentException.class, () -> executionResultService.listSubmissions(null, null, 10));
+    }
+
+    private List<String> storeSubmissions(String sessionId, int count) throws Exception {
+        String hash = sourceBlobService.store("print(1)".getBytes(StandardCharsets.UTF_8));
+        Instant createdAt = Instant.now();
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            CodeSubmission submission = CodeSubmission.builder()
+                    .id(UUID.randomUUID().toString())
+                    .sessionId(sessionId)
+                    .language("python")
+                    .sourceHash(hash)
+                    .createdAt(createdAt.plusMillis(i))
+                    .build();
+            submissionWriter.write(submission).get(5, TimeUnit.SECONDS);
+            ids.add(submission.getId());
+        }
+        return ids;
+    }
+
+    private void recordOutput(String submissionId, String outputUri) {
+        executionResultService.record(ExecutionResult.builder()
+                .submissionId(submissionId)
+                .sessionId("session")
+                .status("COMPLETED")
+                .exitCode(0)
+                .outputUri(outputUri)
+                .outputNode("consumer-1")
+                .finishedAt(Instant.now())
+                .build());
+    }
+}
@@ -0,0 +1,89 @@
+package com.remote.submission.service;
+
+import com.remote.submission.exception.SourceTooLargeException;
+import com.remote.submission.model.CodeSubmission;
+import com.remote.submission.repository.CodeSubmissionRepository;
+import com.remote.submission.repository.SourceBlobRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ByteArrayResource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "submission.source-blobs.gc-grace-minutes=0")
+class SourceBlobServiceTest {
+
+    @Autowired
+    private SourceBlobService sourceBlobService;
+
+    @Autowired
+    private SourceBlobRepository sourceBlobRepository;
+
+    @Autowired
+    private CodeSubmissionRepository codeSubmissionRepository;
+
+    @BeforeEach
+    void clear() {
+        codeSubmissionRepository.deleteAll();
+        sourceBlobRepository.deleteAll();
+    }
+
+    @Test
+    void storesIdenticalSourceOnce() {
+        byte[] source = "print('hello')".getBytes(StandardCharsets.UTF_8);
+
+        String first = sourceBlobService.store(source);
+        String second = sourceBlobService.store(source.clone());
+
+        assertEquals(first, second);
+        assertEquals(1, sourceBlobRepository.count());
+        assertArrayEquals(source, sourceBlobRepository.findById(first).orElseThrow().getContent());
+    }
+
+    @Test
+    void streamsUploadsIntoTheBlob() throws IOException {
+        byte[] source = "print('hello')\n".repeat(1000).getBytes(StandardCharsets.UTF_8);
+
+        SourceUpload upload = SourceUpload.of(new ByteArrayResource(source), source.length);
+        sourceBlobService.store(upload);
+
+        assertEquals(SourceBlobService.hash(source), upload.getHash());
+        assertArrayEquals(source, sourceBlobRepository.findById(upload.getHash()).orElseThrow().getContent());
+        assertArrayEquals(source, upload.readBytes());
+    }
+
+    @Test
+    void rejectsUploadsOverTheLimitWhileReading() {
+        byte[] source = new byte[100];
+
+        assertThrows(SourceTooLargeException.class, () -> SourceUpload.of(new ByteArrayResource(source), 99));
+    }
+
+    @Test
+    void collectsOnlyUnreferencedBlobs() throws InterruptedException {
+        String referenced = sourceBlobService.store("print(1)".getBytes(StandardCharsets.UTF_8));
+        String orphan = sourceBlobService.store("print(2)".getBytes(StandardCharsets.UTF_8));
+        codeSubmissionRepository.save(CodeSubmission.builder()
+                .id(UUID.randomUUID().toString())
+                .sessionId("session")
+                .language("python")
+                .sourceHash(referenced)
+                .createdAt(Instant.now())
+                .build());
+        Thread.sleep(5);
+
+        assertEquals(1, sourceBlobService.collectGarbage());
+        assertTrue(sourceBlobRepository.existsById(referenced));
+        assertTrue(sourceBlobRepository.findById(orphan).isEmpty());
+    }
+}
@@ -0,0 +1,132 @@
+package com.remote.submission.service;
+
+import com.remote.submission.model.CodeSubmission;
+import com.remote.submission.model.TestCase;
+import com.remote.submission.repository.CodeSubmissionRepository;
+import com.remote.submission.repository.SourceBlobRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+
+@SpringBootTest(properties = {
+        "submission.write-behind.flush-size=4",
+        "submission.write-behind.flush-interval-ms=20"
+})
+class SubmissionWriterTest {
+
+    @Autowired
+    private SubmissionWriter submissionWriter;
+
+    @Autowired
+    private CodeSubmissionService codeSubmissionService;
+
+    @Autowired
+    private SourceBlobService sourceBlobService;
+
+    @Autowired
+    private CodeSubmissionRepository codeSubmissionRepository;
+
+    @Autowired
+    private SourceBlobRepository sourceBlobRepository;
+
+    @MockBean
+    private RabbitTemplate rabbitTemplate;
+
+    @BeforeEach
+    void clear() {
+        codeSubmissionRepository.deleteAll();
+        sourceBlobRepository.deleteAll();
+    }
+
+    @Test
+    void completesOnceTheBatchIsCommitted() throws Exception {
+        String hash = sourceBlobService.store("print(1)".getBytes(StandardCharsets.UTF_8));
+        List<CompletableFuture<CodeSubmission>> writes = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            writes.add(submissionWriter.write(submission(hash)));
+        }
+
+        for (CompletableFuture<CodeSubmission> write : writes) {
+            CodeSubmission stored = write.get(5, TimeUnit.SECONDS);
+            assertTrue(codeSubmissionRepository.findById(stored.getId()).isPresent());
+        }
+        assertEquals(10, codeSubmissionRepository.count());
+    }
+
+    @Test
+    void failsOnlyTheRowsThatCouldNotBeStored() throws Exception {
+        String hash = sourceBlobService.store("print(2)".getBytes(StandardCharsets.UTF_8));
+
+        CompletableFuture<CodeSubmission> stored = submissionWriter.write(submission(hash));
+        // References no source blob
+        CompletableFuture<CodeSubmission> dangling = submissionWriter.write(submission("0".repeat(64)));
+
+        stored.get(5, TimeUnit.SECONDS);
+        assertThrows(ExecutionException.class, () -> dangling.get(5, TimeUnit.SECONDS));
+        assertEquals(1, codeSubmissionRepository.count());
+    }
+
+    @Test
+    void publishesOnlyCommittedSubmissions() throws Exception {
+        List<Boolean> storedWhenPublished = new ArrayList<>();
+        List<String> publishingThreads = new ArrayList<>();
+        doAnswer(invocation -> {
+            CodeSubmission published = invocation.getArgument(2);
+            storedWhenPublished.add(codeSubmissionRepository.findById(published.getId()).isPresent());
+            publishingThreads.add(Thread.currentThread().getName());
+            return null;
+        }).when(rabbitTemplate).convertAndSend(anyString(), anyString(), any(Object.class));
+
+        CodeSubmission request = new CodeSubmission();
+        request.setSessionId("session");
+        request.setLanguage("python");
+        request.setCodeContent("print(3)");
+        codeSubmissionService.handleCodeSubmission(request).get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of(true), storedWhenPublished);
+        // Not on the writer thread, which would stall inserts while the broker is slow
+        assertTrue(publishingThreads.get(0).startsWith("SubmissionPublish-"), publishingThreads.get(0));
+    }
+
+    @Test
+    void appliesTheJudgeLimitsToTestCasesSentAsRawCode() {
+        CodeSubmission request = new CodeSubmission();
+        request.setSessionId("session");
+        request.setLanguage("python");
+        request.setCodeContent("print(input())");
+        request.setTestCases(Collections.nCopies(101, new TestCase("1", "1")));
+
+        assertThrows(IllegalArgumentException.class, () -> codeSubmissionService.handleCodeSubmission(request));
+        assertEquals(0, codeSubmissionRepository.count());
+    }
+
+    private static CodeSubmission submission(String sourceHash) {
+        return CodeSubmission.builder()
+                .id(UUID.randomUUID().toString())
+                .sessionId("session")
+                .language("python")
+                .sourceHash(sourceHash)
+                .createdAt(Instant.now())
+                .build();
+    }
+}